@@ -0,0 +1,135 @@
+package bench;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * запуск бенчмарков JMH горячих путей (mvn -B test-compile exec:exec -Dbench.args="..."):
+ *   bench.BenchmarkRunner [--filter=Dispatcher] [--save=baseline.csv]
+ *                         [--baseline=baseline.csv] [--threshold=10]
+ * --filter - регулярное выражение по имени бенчмарка. с --baseline результаты
+ * сравниваются с сохраненными, замедление больше порога - код возврата 1
+ */
+public class BenchmarkRunner {
+
+    /* результат одного бенчмарка при одном наборе параметров */
+    private record Result(String name, String params, double nsPerOp, double error) {
+        String key() {
+            return name + " " + params;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        String filter = null;
+        String savePath = null;
+        String baselinePath = null;
+        double threshold = 10.0;
+
+        for (String arg : args) {
+            if (arg.startsWith("--filter=")) {
+                filter = arg.substring("--filter=".length());
+            } else if (arg.startsWith("--save=")) {
+                savePath = arg.substring("--save=".length());
+            } else if (arg.startsWith("--baseline=")) {
+                baselinePath = arg.substring("--baseline=".length());
+            } else if (arg.startsWith("--threshold=")) {
+                threshold = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else {
+                System.err.println("Неизвестный параметр: " + arg);
+                System.exit(2);
+            }
+        }
+
+        // режим, единицы, прогрев и форки заданы аннотациями классов бенчмарков
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        if (filter != null) {
+            options.include(filter);
+        }
+        List<Result> results = new ArrayList<>();
+        for (RunResult run : new Runner(options.build()).run()) {
+            results.add(toResult(run));
+        }
+
+        if (savePath != null) {
+            save(Path.of(savePath), results);
+        }
+
+        if (baselinePath != null && !compare(Path.of(baselinePath), results, threshold)) {
+            System.exit(1);
+        }
+    }
+
+    /* имя без пакета и суффикса класса (Dispatcher.selectOptimalElevator), параметры через пробел */
+    private static Result toResult(RunResult run) {
+        BenchmarkParams params = run.getParams();
+        String benchmark = params.getBenchmark();
+        String method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        String type = benchmark.substring(0, benchmark.lastIndexOf('.'));
+        type = type.substring(type.lastIndexOf('.') + 1).replace("Benchmark", "");
+
+        StringBuilder values = new StringBuilder();
+        for (String key : params.getParamsKeys()) {
+            if (values.length() > 0) {
+                values.append(' ');
+            }
+            values.append(key).append('=').append(params.getParam(key));
+        }
+        return new Result(type + "." + method, values.toString(),
+                run.getPrimaryResult().getScore(), run.getPrimaryResult().getScoreError());
+    }
+
+    /* формат: имя;параметры;нс/оп */
+    private static void save(Path path, List<Result> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Result result : results) {
+            lines.add(result.name() + ";" + result.params() + ";" + String.format(Locale.ROOT, "%.2f", result.nsPerOp()));
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private static boolean compare(Path path, Collection<Result> results, double threshold) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(";");
+            if (parts.length == 3) {
+                baseline.put(parts[0] + " " + parts[1], Double.parseDouble(parts[2]));
+            }
+        }
+
+        boolean ok = true;
+        System.out.println();
+        System.out.println("Сравнение с " + path + " (порог " + threshold + "%)");
+
+        for (Result result : results) {
+            Double before = baseline.get(result.key());
+            if (before == null) {
+                continue;
+            }
+
+            // замедление в пределах погрешности замера регрессией не считается
+            double change = (result.nsPerOp() - before) / before * 100.0;
+            double noise = Double.isNaN(result.error()) ? 0 : result.error() / before * 100.0;
+            boolean regression = change > threshold && change > noise;
+            ok &= !regression;
+
+            System.out.printf("%-70s %10.1f -> %10.1f нс/оп (%+.1f%%)%s%n",
+                    result.key(), before, result.nsPerOp(), change, regression ? "  РЕГРЕССИЯ" : "");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,225 @@
+package control;
+
+import event.EventBus;
+import event.EventSink;
+import event.EventType;
+import model.Direction;
+import model.Elevator;
+import model.ElevatorSnapshot;
+import model.ElevatorStatus;
+import model.PassengerRequest;
+import util.VirtualClock;
+
+import java.util.List;
+
+/*
+ * проверки назначения вызовов на виртуальных часах, без потоков лифтов;
+ * лежат в пакете control ради доступа к внутренним методам. запускаются в фазе test
+ * (mvn -B test), при ошибке - исключение и сборка падает
+ */
+public final class DispatcherAssignmentCheck {
+
+    private static final int FLOORS = 12;
+    private static final int TRIPS = 2;
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.DOWN};
+
+    private DispatcherAssignmentCheck() {}
+
+    public static void main(String[] args) {
+        fallsBackWhenBestElevatorRefuses();
+        refusesDestinationOutsideBuilding();
+        batchAssignmentBeatsGreedyOnCompetingCalls();
+        for (int trip = 0; trip < TRIPS; trip++) {
+            for (long time = 0; time <= 40_000; time += 250) {
+                for (int floor = 1; floor <= FLOORS; floor++) {
+                    for (Direction direction : DIRECTIONS) {
+                        scoreMatchesElevatorAcceptance(trip, time, floor, direction);
+                        midLegPickupMatchesEstimate(trip, time, floor, direction);
+                    }
+                }
+            }
+        }
+        System.out.println("Проверки назначения пройдены");
+    }
+
+    /* лучший по оценке лифт отказался - вызов берет следующий, а не откладывается */
+    private static void fallsBackWhenBestElevatorRefuses() {
+        VirtualClock clock = new VirtualClock();
+        EventBus events = new EventBus(clock);
+        Elevator refusing = new Elevator(1, 5, FLOORS, clock, events) {
+            @Override
+            public boolean assignPassenger(PassengerRequest request) {
+                return false;
+            }
+        };
+        Elevator next = new Elevator(2, 1, FLOORS, clock, events);
+        Dispatcher dispatcher = new Dispatcher(List.of(refusing, next), FLOORS, clock, events);
+
+        PassengerRequest request = new PassengerRequest(1, 5, Direction.UP, 8, 0);
+        check(dispatcher.selectOptimalElevator(request) == refusing,
+                "лучшим по оценке должен быть лифт на этаже вызова");
+
+        dispatcher.submitRequest(1, 5, Direction.UP, 8);
+        dispatcher.dispatchPending();
+        check(next.getSnapshot().isPlannedStop(5), "вызов должен перейти к следующему лифту");
+        check(dispatcher.getPendingRequestsCount() == 0, "вызов не должен откладываться");
+    }
+
+    /* этаж назначения вне дома - лифт отказывает, не принимая вызов */
+    private static void refusesDestinationOutsideBuilding() {
+        VirtualClock clock = new VirtualClock();
+        Elevator elevator = new Elevator(1, 1, FLOORS, clock, new EventBus(clock));
+
+        check(!elevator.assignPassenger(new PassengerRequest(1, 3, Direction.UP, FLOORS + 1, 0)),
+                "вызов на этаж выше дома должен отклоняться");
+        check(!elevator.assignPassenger(new PassengerRequest(2, 3, Direction.DOWN, 0, 0)),
+                "вызов на этаж ниже дома должен отклоняться");
+        check(!elevator.getSnapshot().isPlannedStop(3), "отклоненный вызов не должен становиться остановкой");
+    }
+
+    /*
+     * лифты на 1-м и 5-м, вызовы вверх с 4-го и 8-го в одной пачке. по очереди вызов с 4-го
+     * достается ближнему лифту с 5-го, и вызов с 8-го ждет дальнего; назначение пачки отдает
+     * 4-й лифту с 1-го, 8-й - лифту с 5-го, и суммарное ожидание меньше
+     */
+    private static void batchAssignmentBeatsGreedyOnCompetingCalls() {
+        long greedy = totalWait(DispatchMode.GREEDY);
+        long batch = totalWait(DispatchMode.BATCH);
+        check(batch < greedy, String.format(
+                "назначение пачки: суммарное ожидание %d мс, по очереди - %d мс", batch, greedy));
+    }
+
+    private static long totalWait(DispatchMode mode) {
+        VirtualClock clock = new VirtualClock();
+        EventBus events = new EventBus(clock);
+        long[] total = {0};
+        events.addSink(new EventSink() {
+            @Override
+            public boolean isEnabled(EventType type) {
+                return type == EventType.PASSENGER_BOARDED;
+            }
+
+            @Override
+            public void onEvent(EventType type, long at, int elevatorId, int floor, int userId, int value) {
+                total[0] += value;
+            }
+        });
+        Elevator low = new Elevator(1, 1, FLOORS, clock, events);
+        Elevator middle = new Elevator(2, 5, FLOORS, clock, events);
+        Dispatcher dispatcher = new Dispatcher(List.of(low, middle), FLOORS, clock, events);
+        dispatcher.setMode(mode);
+
+        dispatcher.submitRequest(1, 4, Direction.UP, 10);
+        dispatcher.submitRequest(2, 8, Direction.UP, 12);
+        dispatcher.dispatchPending();
+        for (long time = 0; time <= 120_000; time += 50) {
+            clock.advanceTo(time);
+            for (Elevator elevator : List.of(low, middle)) {
+                if (elevator.getNextStepTime() <= time) {
+                    elevator.step();
+                }
+            }
+        }
+        return total[0];
+    }
+
+    /* оценка по снимку конечна ровно тогда, когда лифт принимает вызов */
+    private static void scoreMatchesElevatorAcceptance(int trip, long time, int floor, Direction direction) {
+        VirtualClock clock = new VirtualClock();
+        Elevator elevator = travelingElevator(clock, new EventBus(clock), trip, time);
+        Dispatcher dispatcher = new Dispatcher(List.of(elevator), FLOORS, clock, new EventBus(clock));
+
+        PassengerRequest request = newRequest(floor, direction, time);
+        boolean predicted = dispatcher.calculateElevatorScore(elevator, request) < Double.POSITIVE_INFINITY;
+        boolean accepted = elevator.assignPassenger(request);
+        check(predicted == accepted, String.format(
+                "поездка %d, %d мс, вызов с этажа %d %s: по оценке %s, лифт %s", trip, time, floor, direction,
+                predicted ? "примет" : "откажет", accepted ? "принял" : "отказал"));
+    }
+
+    /*
+     * прогноз посадки в пути (кабина еще успевает затормозить) сбывается точно в срок,
+     * и остановка на этаже вызова до конца текущего перегона была им предсказана
+     */
+    private static void midLegPickupMatchesEstimate(int trip, long time, int floor, Direction direction) {
+        VirtualClock clock = new VirtualClock();
+        EventBus events = new EventBus(clock);
+        long[] boarded = {-1};
+        events.addSink(new EventSink() {
+            @Override
+            public boolean isEnabled(EventType type) {
+                return type == EventType.PASSENGER_BOARDED;
+            }
+
+            @Override
+            public void onEvent(EventType type, long at, int elevatorId, int stop, int userId, int value) {
+                if (userId == 2 && boarded[0] < 0) {
+                    boarded[0] = at;
+                }
+            }
+        });
+        Elevator elevator = travelingElevator(clock, events, trip, time);
+        ElevatorSnapshot state = elevator.getSnapshot();
+        Dispatcher dispatcher = new Dispatcher(List.of(elevator), FLOORS, clock, events);
+
+        PassengerRequest request = newRequest(floor, direction, time);
+        if (state.getStatus() != ElevatorStatus.MOVING
+                || dispatcher.calculateElevatorScore(elevator, request) == Double.POSITIVE_INFINITY) {
+            return; // на стоянке и при отказе посадки в пути нет
+        }
+        long estimate = time + Dispatcher.estimatePickupTime(state, request, time);
+        long legEnd = state.getNextStepTime();
+
+        check(elevator.assignPassenger(request), "лифт должен принять вызов");
+        runUntil(elevator, clock, time + 120_000);
+        if (estimate < legEnd || (boarded[0] >= 0 && boarded[0] < legEnd)) {
+            check(boarded[0] == estimate, String.format(
+                    "поездка %d, %d мс, вызов с этажа %d %s: прогноз посадки %d мс, посадка %d мс",
+                    trip, time, floor, direction, estimate, boarded[0]));
+        }
+    }
+
+    /*
+     * состояние лифта на момент time. поездка 0: с этажа 3 к 9 с попутным пассажиром с 6;
+     * поездка 1: с этажа 11 вниз за пассажиром на 2, едущим вверх, - по ходу целей нет,
+     * и лифт берет встречные вызовы рядом с собой, но забирает их только после разворота
+     */
+    private static Elevator travelingElevator(VirtualClock clock, EventBus events, int trip, long time) {
+        Elevator elevator;
+        if (trip == 0) {
+            elevator = new Elevator(1, 3, FLOORS, clock, events);
+            elevator.addTarget(9);
+            check(elevator.assignPassenger(new PassengerRequest(1, 6, Direction.UP, 11, 0)),
+                    "попутный вызов должен приниматься");
+        } else {
+            elevator = new Elevator(1, 11, FLOORS, clock, events);
+            check(elevator.assignPassenger(new PassengerRequest(1, 2, Direction.UP, 12, 0)),
+                    "свободный лифт должен принимать вызов");
+        }
+        runUntil(elevator, clock, time);
+        return elevator;
+    }
+
+    /* шаги автомата лифта по виртуальным часам до момента time */
+    private static void runUntil(Elevator elevator, VirtualClock clock, long time) {
+        long at = elevator.getNextStepTime();
+        while (at <= time) {
+            clock.advanceTo(at);
+            if (elevator.step() == Elevator.IDLE) {
+                break;
+            }
+            at = elevator.getNextStepTime();
+        }
+        clock.advanceTo(time);
+    }
+
+    private static PassengerRequest newRequest(int floor, Direction direction, long time) {
+        return new PassengerRequest(2, floor, direction, direction == Direction.UP ? FLOORS : 1, time);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
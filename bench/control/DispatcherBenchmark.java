@@ -0,0 +1,124 @@
+package control;
+
+import event.EventBus;
+import model.Direction;
+import model.Elevator;
+import model.ElevatorBenchmark;
+import model.PassengerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.VirtualClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/* бенчмарки выбора лифта; лежат в пакете control ради доступа к внутренним методам */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class DispatcherBenchmark {
+
+    // степень двойки: индекс вызова берется маской
+    private static final int REQUESTS = 256;
+
+    /* банк лифтов для выбора: 256 - вдвое больше порога параллельного счета оценок */
+    @State(Scope.Thread)
+    public static class Bank {
+        @Param({"10", "50", "200"})
+        public int floors;
+        @Param({"0.1", "0.5"})
+        public double density;
+        @Param({"8", "256"})
+        public int elevators;
+
+        Dispatcher dispatcher;
+        PassengerRequest[] requests;
+        int next;
+
+        @Setup
+        public void setUp() {
+            dispatcher = newDispatcher(floors, density, elevators);
+            requests = randomRequests(floors);
+        }
+    }
+
+    /* восемь лифтов для оценки одного лифта */
+    @State(Scope.Thread)
+    public static class Scoring {
+        @Param({"10", "50", "200"})
+        public int floors;
+        @Param({"0.1", "0.5"})
+        public double density;
+
+        Dispatcher dispatcher;
+        List<Elevator> elevators;
+        PassengerRequest[] requests;
+        int next;
+
+        @Setup
+        public void setUp() {
+            dispatcher = newDispatcher(floors, density, 8);
+            elevators = dispatcher.getElevators();
+            requests = randomRequests(floors);
+        }
+    }
+
+    @Benchmark
+    public Elevator selectOptimalElevator(Bank bank) {
+        return bank.dispatcher.selectOptimalElevator(bank.requests[bank.next++ & (REQUESTS - 1)]);
+    }
+
+    @Benchmark
+    public double calculateElevatorScore(Scoring scoring) {
+        int i = scoring.next++;
+        return scoring.dispatcher.calculateElevatorScore(
+                scoring.elevators.get(i % scoring.elevators.size()), scoring.requests[i & (REQUESTS - 1)]);
+    }
+
+    @Benchmark
+    public double calculateDestinationScore(Scoring scoring) {
+        int i = scoring.next++;
+        return scoring.dispatcher.calculateDestinationScore(
+                scoring.elevators.get(i % scoring.elevators.size()), scoring.requests[i & (REQUESTS - 1)]);
+    }
+
+    /* лифты равномерно по высоте дома, у каждого цели на доле density этажей */
+    private static Dispatcher newDispatcher(int floors, double density, int count) {
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int startFloor = 1 + (i * (floors - 1)) / count;
+            elevators.add(ElevatorBenchmark.loadedElevator(i + 1, startFloor, floors, density, i + 1));
+        }
+        VirtualClock clock = new VirtualClock();
+        return new Dispatcher(elevators, floors, clock, new EventBus(clock));
+    }
+
+    private static PassengerRequest[] randomRequests(int floors) {
+        Random random = new Random(42);
+        PassengerRequest[] requests = new PassengerRequest[REQUESTS];
+
+        for (int i = 0; i < REQUESTS; i++) {
+            int from = random.nextInt(floors) + 1;
+            int to;
+            do {
+                to = random.nextInt(floors) + 1;
+            } while (to == from);
+
+            requests[i] = new PassengerRequest(i + 1, from, to > from ? Direction.UP : Direction.DOWN, to, 0);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+import event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.VirtualClock;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/* бенчмарки маршрутизации лифта; лежат в пакете model ради доступа к внутренним методам */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int floors;
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    private Elevator loaded;
+    private int[] calls;
+    private int nextCall;
+
+    /* лифт для addExternalTarget - новый на каждый вызов, его создание в замер не входит */
+    @State(Scope.Thread)
+    public static class Fresh {
+        Elevator elevator;
+
+        @Setup(Level.Invocation)
+        public void setUp(ElevatorBenchmark benchmark) {
+            elevator = newElevator(benchmark.floors);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        loaded = loadedElevator(floors, density, 1);
+
+        // вызовы вверх выше стартового этажа: все принимаются свободным лифтом
+        calls = randomFloors(floors / 2 + 1, floors, density, 2);
+        if (calls.length == 0) {
+            calls = new int[]{floors};
+        }
+    }
+
+    @Benchmark
+    public int nextStop() {
+        synchronized (loaded) {
+            return loaded.nextStop();
+        }
+    }
+
+    @Benchmark
+    public String getStatusDisplay() {
+        return loaded.getStatusDisplay();
+    }
+
+    @Benchmark
+    public boolean addExternalTarget(Fresh fresh) {
+        int floor = calls[nextCall++ % calls.length];
+        return fresh.elevator.addExternalTarget(floor, Direction.UP);
+    }
+
+    public static Elevator newElevator(int floors) {
+        return newElevator(1, (floors + 1) / 2, floors);
+    }
+
+    public static Elevator newElevator(int id, int startFloor, int floors) {
+        VirtualClock clock = new VirtualClock();
+        return new Elevator(id, startFloor, floors, clock, new EventBus(clock));
+    }
+
+    /* лифт с целями примерно на доле density этажей: внутренние цели и вызовы по пути */
+    public static Elevator loadedElevator(int floors, double density, long seed) {
+        return loadedElevator(1, (floors + 1) / 2, floors, density, seed);
+    }
+
+    public static Elevator loadedElevator(int id, int startFloor, int floors, double density, long seed) {
+        Elevator elevator = newElevator(id, startFloor, floors);
+
+        for (int floor : randomFloors(1, floors, density, seed)) {
+            if (floor % 3 == 0 && floor > startFloor) {
+                elevator.addExternalTarget(floor, Direction.UP);
+            } else {
+                elevator.addTarget(floor);
+            }
+        }
+        return elevator;
+    }
+
+    static int[] randomFloors(int from, int to, double density, long seed) {
+        Random random = new Random(seed);
+        return java.util.stream.IntStream.rangeClosed(from, to)
+                .filter(f -> random.nextDouble() < density)
+                .toArray();
+    }
+}
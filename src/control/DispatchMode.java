@@ -0,0 +1,8 @@
+package control;
+
+/* способ назначения вызовов на лифты */
+public enum DispatchMode {
+    GREEDY,      // каждый запрос сразу на лучший по оценке лифт
+    BATCH,       // вызовы за окно собираются в пачку и назначаются совместно (минимум суммы оценок)
+    DESTINATION  // по этажу назначения: лифт, чей маршрут удлинится меньше всего
+}
@@ -0,0 +1,236 @@
+package control;
+
+import model.Direction;
+import model.Elevator;
+import model.ElevatorListener;
+import model.PassengerRequest;
+import util.GuiLogger;
+import util.LatencyHistogram;
+import util.SimulationClock;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * маршрутизатор вызовов многозонного здания. у каждой зоны свой диспетчер (шард)
+ * со своей очередью, отложенными вызовами и потоком - шарды друг друга не ждут.
+ * вызов уходит шарду зоны, обслуживающей оба этажа; иначе поездка делится на участки
+ * с пересадками на общих этажах зон, и следующий участок подается шарду своей зоны,
+ * когда пассажир выходит из лифта на этаже пересадки. участки несут номер поездки,
+ * по нему выход пассажира сопоставляется с его поездкой
+ */
+public final class DispatchRouter implements RequestTarget, ElevatorListener {
+
+    private final List<Zone> zones;
+    private final List<Dispatcher> shards;
+    private final SimulationClock clock;
+    private final GuiLogger log;
+    // следующая зона на кратчайшем по числу пересадок пути из зоны i в зону j
+    private final int[][] nextZone;
+    private final int[][] hops;
+
+    // оставшиеся участки поездок с пересадкой, по номеру поездки. в пути у поездки
+    // ровно один участок, поэтому запись берет себе тот поток лифта, где пассажир вышел
+    private final Map<Integer, Deque<Leg>> transfers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTripId = new AtomicInteger();
+    private final AtomicInteger tripsRouted = new AtomicInteger();
+    private final AtomicInteger transfersMade = new AtomicInteger();
+
+    // журнал исходных вызовов: при повторе маршрут строится заново
+    private volatile RequestTraceWriter traceWriter;
+
+    private record Leg(int zone, int fromFloor, int toFloor) {}
+
+    public DispatchRouter(List<Zone> zones, List<Dispatcher> shards, SimulationClock clock) {
+        if (zones.size() != shards.size()) {
+            throw new IllegalArgumentException("Число зон и диспетчеров не совпадает");
+        }
+        this.zones = zones;
+        this.shards = shards;
+        this.clock = clock;
+        this.log = shards.get(0).getLog();
+
+        int n = zones.size();
+        this.hops = new int[n][n];
+        this.nextZone = new int[n][n];
+        for (int from = 0; from < n; from++) {
+            Arrays.fill(hops[from], -1);
+            hops[from][from] = 0;
+            nextZone[from][from] = from;
+            // обход в ширину от зоны from; первый шаг пути наследуется
+            ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(from));
+            while (!queue.isEmpty()) {
+                int zone = queue.poll();
+                for (int next = 0; next < n; next++) {
+                    if (hops[from][next] < 0 && zones.get(zone).transferFloor(zones.get(next), 0, 0) > 0) {
+                        hops[from][next] = hops[from][zone] + 1;
+                        nextZone[from][next] = zone == from ? next : nextZone[from][zone];
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        for (Dispatcher shard : shards) {
+            for (Elevator elevator : shard.getElevators()) {
+                elevator.addListener(this);
+            }
+        }
+        log.log("Маршрутизатор: зон " + n);
+    }
+
+    public void setTraceWriter(RequestTraceWriter traceWriter) {
+        this.traceWriter = traceWriter;
+    }
+
+    public List<Dispatcher> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    @Override
+    public void submitRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor) {
+        RequestTraceWriter writer = traceWriter;
+        if (writer != null) {
+            writer.record(clock.currentTimeMillis(), userId, fromFloor, requestedDirection, toFloor);
+        }
+        tripsRouted.incrementAndGet();
+
+        List<Leg> legs = route(fromFloor, toFloor);
+        if (legs == null) {
+            // некорректный вызов или поездка в пределах одной зоны - без изменений
+            shards.get(directZone(fromFloor, toFloor)).submitRequest(userId, fromFloor, requestedDirection, toFloor);
+            return;
+        }
+
+        int tripId = 0;
+        if (legs.size() > 1) {
+            tripId = nextTripId.incrementAndGet();
+            transfers.put(tripId, new ArrayDeque<>(legs.subList(1, legs.size())));
+        }
+        submitLeg(userId, legs.get(0), tripId);
+    }
+
+    /* участки поездки с пересадками; null - пересадка не нужна */
+    private List<Leg> route(int fromFloor, int toFloor) {
+        int start = -1;
+        int end = -1;
+        for (int s = 0; s < zones.size(); s++) {
+            if (!zones.get(s).serves(fromFloor)) {
+                continue;
+            }
+            for (int e = 0; e < zones.size(); e++) {
+                if (zones.get(e).serves(toFloor) && (start < 0 || hops[s][e] < hops[start][end])) {
+                    start = s;
+                    end = e;
+                }
+            }
+        }
+        if (start < 0 || start == end || fromFloor == toFloor) {
+            return null;
+        }
+
+        List<Leg> legs = new ArrayList<>();
+        int zone = start;
+        int floor = fromFloor;
+        while (zone != end) {
+            int next = nextZone[zone][end];
+            int transfer = zones.get(zone).transferFloor(zones.get(next), floor, toFloor);
+            if (transfer != floor) {
+                legs.add(new Leg(zone, floor, transfer));
+            }
+            zone = next;
+            floor = transfer;
+        }
+        if (floor != toFloor) {
+            legs.add(new Leg(end, floor, toFloor));
+        }
+        return legs;
+    }
+
+    /* зона, обслуживающая оба этажа; для некорректных этажей - первая, ее диспетчер отклонит вызов */
+    private int directZone(int fromFloor, int toFloor) {
+        for (int i = 0; i < zones.size(); i++) {
+            if (zones.get(i).serves(fromFloor) && zones.get(i).serves(toFloor)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void submitLeg(int userId, Leg leg, int tripId) {
+        Direction direction = leg.toFloor() > leg.fromFloor() ? Direction.UP : Direction.DOWN;
+        shards.get(leg.zone()).submitRequest(userId, leg.fromFloor(), direction, leg.toFloor(), tripId);
+    }
+
+    /* пассажир вышел - если это участок поездки с пересадкой, подаем следующий; вызывается потоком лифта */
+    @Override
+    public void onPassengerAlighted(Elevator elevator, PassengerRequest passenger) {
+        int tripId = passenger.getTripId();
+        Deque<Leg> legs = tripId == 0 ? null : transfers.remove(tripId);
+        if (legs == null) {
+            return; // самостоятельный вызов или последний участок
+        }
+
+        Leg next = legs.pollFirst();
+        if (next.fromFloor() != passenger.getToFloor()) {
+            // участок закончился не на этаже пересадки - продолжать поездку неоткуда
+            log.log("Маршрутизатор: пользователь " + passenger.getUserId() + " вышел на этаже "
+                    + passenger.getToFloor() + ", а пересадка ожидалась на этаже " + next.fromFloor()
+                    + ", поездка прервана");
+            return;
+        }
+        if (!legs.isEmpty()) {
+            transfers.put(tripId, legs);
+        }
+        transfersMade.incrementAndGet();
+        submitLeg(passenger.getUserId(), next, tripId);
+    }
+
+    @Override
+    public GuiLogger getLog() {
+        return log;
+    }
+
+    @Override
+    public String getStatistics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Маршрутизатор: поездок %d, пересадок %d%n", tripsRouted.get(), transfersMade.get()));
+        for (int i = 0; i < zones.size(); i++) {
+            sb.append("Зона ").append(zones.get(i).getName()).append(". ").append(shards.get(i).getStatistics());
+            if (i < zones.size() - 1) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getPassengerStatistics() {
+        LatencyHistogram waitTimes = new LatencyHistogram();
+        LatencyHistogram rideTimes = new LatencyHistogram();
+
+        for (Dispatcher shard : shards) {
+            for (Elevator elevator : shard.getElevators()) {
+                waitTimes.merge(elevator.getWaitTimes());
+                rideTimes.merge(elevator.getRideTimes());
+            }
+        }
+
+        return "Ожидание (по участкам): " + waitTimes.getSummary() + "\n" +
+                "Поездка (по участкам): " + rideTimes.getSummary();
+    }
+
+    @Override
+    public int getPendingRequestsCount() {
+        int pending = 0;
+        for (Dispatcher shard : shards) {
+            pending += shard.getPendingRequestsCount();
+        }
+        return pending;
+    }
+
+    public int getTransfersMade() {
+        return transfersMade.get();
+    }
+}
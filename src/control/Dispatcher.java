@@ -1,51 +1,127 @@
 package control;
 
+import event.EventBus;
+import event.EventType;
 import model.Elevator;
+import model.ElevatorListener;
+import model.ElevatorStatus;
+import model.MotionProfile;
+import model.ElevatorSnapshot;
 import model.Direction;
+import model.FloorSet;
+import model.PassengerRequest;
 import util.GuiLogger;
+import util.LatencyHistogram;
+import util.SimulationClock;
 
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
-public class Dispatcher implements Runnable {
-
-    /*запросы пассажиров */
-    private static class PassengerRequest {
-        final int userId;
-        final int fromFloor;
-        final Direction requestedDirection;
-        final int toFloor;
-
-        PassengerRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor) {
-            this.userId = userId;
-            this.fromFloor = fromFloor;
-            this.requestedDirection = requestedDirection;
-            this.toFloor = toFloor;
-        }
-    }
+public final class Dispatcher implements Runnable, ElevatorListener, RequestTarget {
 
     private final BlockingQueue<PassengerRequest> requests = new LinkedBlockingQueue<>();
     private final List<Elevator> elevators;
     private final int maxFloors;
+    private final SimulationClock clock;
+    private final SimulationClock.Signal requestSignal;
+    private final EventBus events;
+    private final GuiLogger log;
+
+    // прогноз ожидания, дольше которого занятый лифт не назначается (вызов откладывается)
+    private static final double MAX_ACCEPTABLE_ETA_MS = 60_000;
+
+    // с какого числа лифтов оценки считаются параллельно: оценка - десятки-сотни нс,
+    // запуск задачи fork-join - единицы мкс, окупается только в большом доме
+    static final int PARALLEL_SCORING_MIN_ELEVATORS = 128;
+
+    // режим назначения и окно сбора пачки (мс времени симуляции)
+    private volatile DispatchMode mode = DispatchMode.GREEDY;
+    private volatile long batchWindowMs = 500;
+
+    // журнал поступивших вызовов для повтора; null - не пишется
+    private volatile RequestTraceWriter traceWriter;
+
+    /*
+     * отложенные вызовы, для которых не нашлось лифта: по этажу и направлению.
+     * пересматриваются, когда любой лифт меняет состояние, новые запросы их не ждут.
+     * меняются только потоком диспетчера (или движком событий)
+     */
+    private final ArrayDeque<PassengerRequest>[] parkedUp;
+    private final ArrayDeque<PassengerRequest>[] parkedDown;
+    private final FloorSet parkedUpFloors;
+    private final FloorSet parkedDownFloors;
+    private volatile int parkedCount = 0;
+    private volatile boolean elevatorsChanged = false;
 
     // общая статистика
     private int totalRequestsProcessed = 0;
     private int requestsAssigned = 0;
     private int requestsRejected = 0;
 
-    public Dispatcher(List<Elevator> elevators, int maxFloors) {
+    public Dispatcher(List<Elevator> elevators, int maxFloors, SimulationClock clock, EventBus events) {
         this.elevators = elevators;
         this.maxFloors = maxFloors;
-        GuiLogger.log("Диспетчер инициализирован для дома из " + maxFloors + " этажей");
+        this.clock = clock;
+        this.events = events;
+        this.log = events.getLog();
+        this.requestSignal = clock.newSignal();
+        this.parkedUp = newParkedQueues(maxFloors);
+        this.parkedDown = newParkedQueues(maxFloors);
+        this.parkedUpFloors = new FloorSet(maxFloors);
+        this.parkedDownFloors = new FloorSet(maxFloors);
+        for (Elevator elevator : elevators) {
+            elevator.addListener(this);
+        }
+        log.log("Диспетчер инициализирован для дома из " + maxFloors + " этажей");
+    }
+
+
+    // массив обобщенного типа создается только через сырой ArrayDeque[]; массив, а не список -
+    // очередь этажа берется по индексу при каждом пересмотре отложенных вызовов
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayDeque<PassengerRequest>[] newParkedQueues(int maxFloors) {
+        return (ArrayDeque<PassengerRequest>[]) new ArrayDeque[maxFloors + 1];
     }
 
+    /* лог симуляции, которой принадлежит диспетчер */
+    @Override
+    public GuiLogger getLog() {
+        return log;
+    }
+
+    public DispatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(DispatchMode mode) {
+        this.mode = mode;
+    }
+
+    public long getBatchWindowMs() {
+        return batchWindowMs;
+    }
+
+    public void setBatchWindowMs(long batchWindowMs) {
+        if (batchWindowMs < 0) {
+            throw new IllegalArgumentException("Окно пачки не может быть отрицательным");
+        }
+        this.batchWindowMs = batchWindowMs;
+    }
+
+    public void setTraceWriter(RequestTraceWriter traceWriter) {
+        this.traceWriter = traceWriter;
+    }
 
     public synchronized List<Elevator> getElevators() {
         return new ArrayList<>(elevators); // Возвращаем копию для безопасности
     }
 
 
+    @Override
     public synchronized String getStatistics() {
         return String.format(
                 "Статистика диспетчера:\n" +
@@ -61,21 +137,30 @@ public class Dispatcher implements Runnable {
     }
 
 
+    @Override
     public void submitRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor) {
+        submitRequest(userId, fromFloor, requestedDirection, toFloor, 0);
+    }
+
+    /* участок поездки с пересадками: tripId возвращается маршрутизатору при выходе пассажира */
+    void submitRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor, int tripId) {
         synchronized (this) {
             totalRequestsProcessed++;
         }
 
-        GuiLogger.log(
-                "Поступил запрос: пользователь " + userId +
-                        ", этаж " + fromFloor +
-                        " (направление: " + requestedDirection + ")" +
-                        " → цель " + toFloor
-        );
+        // направление - заданное вызывающим, у вызова из журнала оно может не следовать из этажей
+        events.emit(EventType.CALL_RECEIVED, 0, fromFloor, userId,
+                (toFloor << 1) | (requestedDirection == Direction.UP ? 1 : 0));
+
+        // в журнал - до проверки: повтор должен воспроизвести и некорректные вызовы
+        RequestTraceWriter writer = traceWriter;
+        if (writer != null) {
+            writer.record(clock.currentTimeMillis(), userId, fromFloor, requestedDirection, toFloor);
+        }
 
         // проверка корректности запроса
         if (fromFloor < 1 || fromFloor > maxFloors || toFloor < 1 || toFloor > maxFloors) {
-            GuiLogger.log("ОШИБКА: Некорректные этажи в запросе " + userId);
+            log.log("ОШИБКА: Некорректные этажи в запросе " + userId);
             synchronized (this) {
                 requestsRejected++;
             }
@@ -83,171 +168,497 @@ public class Dispatcher implements Runnable {
         }
 
         if (fromFloor == toFloor) {
-            GuiLogger.log("ОШИБКА: Этаж вызова совпадает с целевым этажом в запросе " + userId);
+            log.log("ОШИБКА: Этаж вызова совпадает с целевым этажом в запросе " + userId);
             synchronized (this) {
                 requestsRejected++;
             }
             return;
         }
 
-        requests.offer(new PassengerRequest(userId, fromFloor, requestedDirection, toFloor));
+        requests.offer(new PassengerRequest(userId, fromFloor, requestedDirection, toFloor,
+                clock.currentTimeMillis(), tripId));
+        requestSignal.signal();
     }
 
     @Override
     public void run() {
         try {
-            GuiLogger.log("Диспетчер начал работу");
+            log.log("Диспетчер начал работу");
 
             while (!Thread.currentThread().isInterrupted()) {
-                PassengerRequest request = requests.take();
-
-                // выбор оптимального лифта
-                Elevator selectedElevator = selectOptimalElevator(request);
-
-                if (selectedElevator == null) {
-                    GuiLogger.log(
-                            "Пользователь " + request.userId +
-                                    ": ВСЕ ЛИФТЫ ЗАНЯТЫ, запрос поставлен в очередь"
-                    );
-                    synchronized (this) {
-                        requestsRejected++;
-                    }
+                retryParked();
+
+                PassengerRequest request = requests.poll();
+                if (request == null) {
+                    // ожидание через часы симуляции, чтобы виртуальное время не шло без диспетчера;
+                    // будит новый запрос или смена состояния лифта при отложенных вызовах
+                    requestSignal.await();
+                    continue;
+                }
 
-                    requests.offer(request);
-                    Thread.sleep(1000);
+                if (mode == DispatchMode.BATCH) {
+                    // собираем вызовы, пришедшие за окно, и назначаем их вместе
+                    clock.sleep(batchWindowMs);
+                    List<PassengerRequest> batch = new ArrayList<>();
+                    batch.add(request);
+                    requests.drainTo(batch);
+                    assignBatch(batch);
                 } else {
-                    synchronized (this) {
-                        requestsAssigned++;
-                    }
-
-                    GuiLogger.log(
-                            "Пользователь " + request.userId +
-                                    ": назначен лифт " + selectedElevator.getId() +
-                                    " (текущий этаж: " + selectedElevator.getCurrentFloor() +
-                                    ", направление: " + selectedElevator.getDirection() + ")"
-                    );
-
-
-                    selectedElevator.addExternalTarget(request.fromFloor, request.requestedDirection);
-                    selectedElevator.addTarget(request.toFloor);
-
-
-                    logAssignmentDetails(selectedElevator, request);
+                    processRequest(request);
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            GuiLogger.log("Диспетчер остановлен по запросу");
+            log.log("Диспетчер остановлен по запросу");
         } catch (Exception e) {
-            GuiLogger.log("ОШИБКА диспетчера: " + e.getMessage());
+            log.log("ОШИБКА диспетчера: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            GuiLogger.log("Диспетчер завершил работу");
-            GuiLogger.log(getStatistics());
+            log.log("Диспетчер завершил работу");
+            log.log(getStatistics());
+            log.log(getPassengerStatistics());
         }
     }
 
-    /* логирование деталей назначения */
-    private void logAssignmentDetails(Elevator elevator, PassengerRequest request) {
-        int distance = Math.abs(elevator.getCurrentFloor() - request.fromFloor);
-        int estimatedTime = distance * 700;
+    /*
+     * обработка всех накопившихся запросов без ожидания (для однопоточного движка):
+     * сначала отложенные, если лифты с тех пор меняли состояние, затем новые
+     */
+    public void dispatchPending() {
+        retryParked();
+
+        if (mode == DispatchMode.BATCH) {
+            List<PassengerRequest> batch = new ArrayList<>();
+            requests.drainTo(batch);
+            assignBatch(batch);
+            return;
+        }
 
-        GuiLogger.log(String.format(
-                "Детали назначения (запрос %d):\n" +
-                        "  Лифт: %d (этаж %d, %s)\n" +
-                        "  Расстояние до пассажира: %d этажей\n" +
-                        "  Примерное время ожидания: %.1f сек.",
-                request.userId,
-                elevator.getId(),
-                elevator.getCurrentFloor(),
-                elevator.getDirection(),
-                distance,
-                estimatedTime / 1000.0
-        ));
+        PassengerRequest request;
+        while ((request = requests.poll()) != null) {
+            processRequest(request);
+        }
     }
 
-    /* выбор оптимального лифта */
-    private Elevator selectOptimalElevator(PassengerRequest request) {
-        Elevator bestElevator = null;
-        double bestScore = Double.MAX_VALUE;
+    /* только пересмотр отложенных вызовов; новые ждут своей пачки */
+    public void dispatchParked() {
+        retryParked();
+    }
 
-        for (Elevator elevator : elevators) {
-            double score = calculateElevatorScore(elevator, request);
+    /*
+     * лифт сменил состояние - отложенные вызовы стоит пересмотреть. флаг ставится всегда:
+     * смена могла прийти между оценкой вызова и park(), и тогда вызов пересматривается
+     * на следующем витке цикла диспетчера, а не висит до следующей смены
+     */
+    @Override
+    public void onStateChanged(Elevator elevator) {
+        elevatorsChanged = true;
+        if (parkedCount > 0) {
+            requestSignal.signal();
+        }
+    }
+
+    /* назначение лифта на новый запрос; если все лифты заняты - откладываем (отказ считается один раз) */
+    private void processRequest(PassengerRequest request) {
+        if (assign(request)) {
+            return;
+        }
+
+        reject(request);
+    }
+
+    private void reject(PassengerRequest request) {
+        events.emit(EventType.CALL_PARKED, 0, request.getFromFloor(), request.getUserId(),
+                request.getRequestedDirection() == Direction.UP ? 1 : 0);
+        synchronized (this) {
+            requestsRejected++;
+        }
+        park(request);
+    }
 
-            if (score < bestScore) {
-                bestScore = score;
-                bestElevator = elevator;
+    /* назначение лучшему по оценке лифту */
+    private boolean assign(PassengerRequest request) {
+        if (mode == DispatchMode.DESTINATION) {
+            return assignByDestination(request);
+        }
+        return assignInOrder(greedyScores(request), request);
+    }
+
+    /* по добавочной стоимости маршрута */
+    private boolean assignByDestination(PassengerRequest request) {
+        double[] scores = new double[elevators.size()];
+        forEachElevator(i -> scores[i] = calculateDestinationScore(elevators.get(i), request));
+        return assignInOrder(scores, request);
+    }
+
+    /*
+     * лифты по возрастанию оценки, первый согласившийся берет пассажира: оценка считалась
+     * по снимку, и лифт мог с тех пор проехать этаж вызова. false - подходящих лифтов нет
+     */
+    private boolean assignInOrder(double[] scores, PassengerRequest request) {
+        for (int best = bestIndex(scores); best >= 0; best = bestIndex(scores)) {
+            if (assignTo(elevators.get(best), request)) {
+                return true;
             }
+            scores[best] = Double.POSITIVE_INFINITY;
         }
+        return false;
+    }
+
+    /* индекс наименьшей конечной оценки, при равных - первый лифт; -1 - все бесконечны */
+    private static int bestIndex(double[] scores) {
+        int best = -1;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] < Double.POSITIVE_INFINITY && (best < 0 || scores[i] < scores[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
 
+    private boolean assignTo(Elevator selectedElevator, PassengerRequest request) {
+        if (!selectedElevator.assignPassenger(request)) {
+            return false;
+        }
 
-        if (bestScore > 1000) {
-            return null;
+        synchronized (this) {
+            requestsAssigned++;
         }
 
-        return bestElevator;
+        if (events.isEnabled(EventType.ASSIGNED)) {
+            events.emit(EventType.ASSIGNED, selectedElevator.getId(), request.getFromFloor(), request.getUserId(),
+                    estimateWaitTime(selectedElevator, request));
+        }
+
+        return true;
     }
 
-    /* расчет оценки оптимальности лифта для данного запроса */
-    private double calculateElevatorScore(Elevator elevator, PassengerRequest request) {
-        int currentFloor = elevator.getCurrentFloor();
-        Direction currentDirection = elevator.getDirection();
-        int passengerFloor = request.fromFloor;
-        Direction passengerDirection = request.requestedDirection;
+    /*
+     * совместное назначение пачки: вызовы группируются по этажу и направлению
+     * (одна остановка на всех), и по матрице оценок лифт x вызов ищется назначение
+     * с наименьшей суммой оценок (MinCostAssignment). за раунд лифт берет не больше
+     * одного вызова; оставшиеся вызовы оцениваются заново по новым маршрутам лифтов
+     * в следующем раунде. вызовы без допустимой пары откладываются
+     */
+    void assignBatch(List<PassengerRequest> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<PassengerRequest>> byCall = new LinkedHashMap<>();
+        for (PassengerRequest request : batch) {
+            int key = request.getFromFloor() * 2 + (request.getRequestedDirection() == Direction.UP ? 1 : 0);
+            byCall.computeIfAbsent(key, k -> new ArrayList<>()).add(request);
+        }
+        List<List<PassengerRequest>> calls = new ArrayList<>(byCall.values());
+
+        // пары, где лифт отказался: оценка по снимку устарела, в этой пачке пара больше не предлагается
+        boolean[][] refused = new boolean[elevators.size()][calls.size()];
+        int[] open = IntStream.range(0, calls.size()).toArray();
+        while (open.length > 0) {
+            int[] round = open;
+            List<List<PassengerRequest>> roundCalls = new ArrayList<>(round.length);
+            for (int call : round) {
+                roundCalls.add(calls.get(call));
+            }
+            double[][] cost = new double[elevators.size()][round.length];
+            forEachElevator(e -> {
+                fillCosts(cost[e], elevators.get(e), roundCalls);
+                for (int c = 0; c < round.length; c++) {
+                    if (refused[e][round[c]]) {
+                        cost[e][c] = Double.POSITIVE_INFINITY;
+                    }
+                }
+            });
+            int[] elevatorOf = MinCostAssignment.solve(cost, round.length);
+
+            boolean progress = false;
+            int left = 0;
+            for (int c = 0; c < round.length; c++) {
+                int e = elevatorOf[c];
+                List<PassengerRequest> call = roundCalls.get(c);
+                if (e >= 0 && assignTo(elevators.get(e), call.get(0))) {
+                    for (int i = 1; i < call.size(); i++) {
+                        if (!assignTo(elevators.get(e), call.get(i))) {
+                            processRequest(call.get(i));
+                        }
+                    }
+                    progress = true;
+                } else if (e >= 0) {
+                    refused[e][round[c]] = true;
+                    progress = true;
+                    open[left++] = round[c];
+                } else if (anyFinite(cost, c)) {
+                    // все допустимые лифты заняты в этом раунде другими вызовами
+                    open[left++] = round[c];
+                } else {
+                    call.forEach(this::reject);
+                }
+            }
+            open = Arrays.copyOf(open, left);
+            if (!progress) {
+                for (int call : open) {
+                    calls.get(call).forEach(this::reject);
+                }
+                return;
+            }
+        }
+    }
 
-        double baseScore = 0.0;
+    private static boolean anyFinite(double[][] cost, int call) {
+        for (double[] row : cost) {
+            if (row[call] < Double.POSITIVE_INFINITY) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        //расстояние до пассажира
-        int distance = Math.abs(currentFloor - passengerFloor);
-        baseScore = distance * 10.0;
+    /* строка матрицы: оценка лифта для каждого вызова, бесконечность - недопустимо */
+    private void fillCosts(double[] row, Elevator elevator, List<List<PassengerRequest>> calls) {
+        boolean available = elevator.isAvailable();
+        for (int c = 0; c < calls.size(); c++) {
+            double score = calculateElevatorScore(elevator, calls.get(c).get(0));
+            row[c] = score > MAX_ACCEPTABLE_ETA_MS && !available ? Double.POSITIVE_INFINITY : score;
+        }
+    }
 
-        //количество текущих целей лифта
-        int targetsCount = elevator.getTargetsCount();
-        baseScore += targetsCount * 5.0;
+    private void park(PassengerRequest request) {
+        int floor = request.getFromFloor();
+        boolean up = request.getRequestedDirection() == Direction.UP;
+        ArrayDeque<PassengerRequest>[] parked = up ? parkedUp : parkedDown;
 
-        // анализ направления движения
-        if (currentDirection == Direction.IDLE) {
-            // свободный лифт
-            baseScore += 0.0;
+        if (parked[floor] == null) {
+            parked[floor] = new ArrayDeque<>();
+        }
+        parked[floor].add(request);
+        (up ? parkedUpFloors : parkedDownFloors).add(floor);
+        parkedCount++;
+    }
 
-        } else if (currentDirection == passengerDirection) {
-            // движется в нужном направлении
+    /* повторное назначение отложенных вызовов, если с прошлой попытки лифты меняли состояние */
+    private void retryParked() {
+        if (!elevatorsChanged || parkedCount == 0) {
+            return;
+        }
+        elevatorsChanged = false;
 
-            if (currentDirection == Direction.UP && passengerFloor >= currentFloor) {
-                // едет вверх и пассажир выше
-                baseScore *= 0.3;
+        retryParked(parkedUp, parkedUpFloors);
+        retryParked(parkedDown, parkedDownFloors);
+    }
 
-            } else if (currentDirection == Direction.DOWN && passengerFloor <= currentFloor) {
-                //едет вниз и пассажир ниже
-                baseScore *= 0.3;
+    private void retryParked(ArrayDeque<PassengerRequest>[] parked, FloorSet floors) {
+        for (int floor = floors.first(); floor >= 0; floor = floors.nextSetBit(floor + 1)) {
+            ArrayDeque<PassengerRequest> waiting = parked[floor];
 
-            } else {
-                // едет в нужном направлении, но пассажир не по пути
-                baseScore *= 1.5;
+            // вызовы одного этажа и направления: если не взяли первый, не возьмут и остальные
+            while (!waiting.isEmpty() && assign(waiting.peek())) {
+                waiting.poll();
+                parkedCount--;
+            }
+            if (waiting.isEmpty()) {
+                floors.remove(floor);
             }
+        }
+    }
 
-        } else {
-            // движется в противоположном направлении
+    /* прогноз ожидания для лога назначения - по уже обновленному маршруту лифта */
+    private int estimateWaitTime(Elevator elevator, PassengerRequest request) {
+        return (int) estimatePickupTime(elevator.getSnapshot(), request, clock.currentTimeMillis());
+    }
 
-            // расчет времени до разворота
-            int furthestTarget = elevator.getFurthestTargetInCurrentDirection();
-            int distanceToTurnAround = Math.abs(furthestTarget - currentFloor)
-                    + Math.abs(furthestTarget - passengerFloor);
+    /* выбор оптимального лифта; null - подходящего нет, вызов откладывается */
+    Elevator selectOptimalElevator(PassengerRequest request) {
+        int best = bestIndex(greedyScores(request));
+        return best < 0 ? null : elevators.get(best);
+    }
+
+    /*
+     * оценки лифтов для жадного назначения. слишком дорогой вариант откладываем, но свободный
+     * лифт берет вызов всегда: иначе при всех стоящих лифтах отложенный вызов некому было бы пересмотреть
+     */
+    private double[] greedyScores(PassengerRequest request) {
+        double[] scores = new double[elevators.size()];
+        forEachElevator(i -> {
+            Elevator elevator = elevators.get(i);
+            double score = calculateElevatorScore(elevator, request);
+            scores[i] = score > MAX_ACCEPTABLE_ETA_MS && !elevator.isAvailable() ? Double.POSITIVE_INFINITY : score;
+        });
+        return scores;
+    }
+
+    /*
+     * обход лифтов по индексу для расчета оценок: в большом доме - параллельно на общем
+     * пуле fork-join. оценки читают только снимки лифтов и часы, поэтому тело
+     * безопасно, если пишет лишь в свою ячейку результата
+     */
+    private void forEachElevator(IntConsumer body) {
+        int count = elevators.size();
+        if (count < PARALLEL_SCORING_MIN_ELEVATORS || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        IntStream.range(0, count).parallel().forEach(body);
+    }
+
+    /*
+     * оценка лифта для запроса - прогноз времени до посадки, мс.
+     * не подходят полный лифт и лифт, который откажется от вызова не по пути
+     */
+    double calculateElevatorScore(Elevator elevator, PassengerRequest request) {
+        // одно чтение снимка: этаж, направление и цели согласованы между собой
+        ElevatorSnapshot state = elevator.getSnapshot();
+        long now = clock.currentTimeMillis();
+        if (state.isFull() || !state.acceptsCall(request.getFromFloor(), request.getRequestedDirection(), now)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return estimatePickupTime(state, request, now);
+    }
+
+    /*
+     * прогноз времени до посадки: проход по плану остановок лифта в порядке LOOK
+     * с реальным временем перегона и стоянки. до трех проходов: по ходу, после
+     * разворота и снова по ходу, если пассажир попутный, но уже позади.
+     * лифт в пути считается от конца текущего перегона
+     */
+    static long estimatePickupTime(ElevatorSnapshot state, PassengerRequest request, long now) {
+        int from = request.getFromFloor();
+        Direction wanted = request.getRequestedDirection();
+        // в пути - этаж, до которого кабина уже доехала по времени, а не этаж на момент снимка:
+        // лифт сам принимает вызов по нему же
+        int position = state.getFloorAt(now);
+
+        Direction direction = state.getDirection();
+        if (direction == Direction.IDLE) {
+            direction = from > position ? Direction.UP : from < position ? Direction.DOWN : wanted;
+        }
+
+        // двери открыты - сначала достоится текущая остановка
+        long time = 0;
+        if (state.getStatus() == ElevatorStatus.DOORS_OPEN) {
+            time = Math.max(0, state.getNextStepTime() - now);
+        } else if (state.getStatus() == ElevatorStatus.MOVING) {
+            int sign = direction == Direction.UP ? 1 : -1;
+            int target = state.getLegTarget();
+
+            // попутный вызов до конца перегона, перед которым кабина еще успевает затормозить
+            if (wanted == direction && sign * from > sign * position && sign * from <= sign * target) {
+                long arrival = state.getLegStartTime()
+                        + state.getTravelTimeMs(Math.abs(from - state.getLegStartFloor()));
+                return Math.max(0, arrival - now);
+            }
+
+            time = Math.max(0, state.getNextStepTime() - now);
+            if (from != target) {
+                time += Elevator.DOOR_OPEN_MS;
+            }
+            position = target;
+        }
+        boolean passed = false;
 
-            baseScore += distanceToTurnAround * 15.0;
+        for (int sweep = 0; sweep < 3; sweep++) {
+            int sign = direction == Direction.UP ? 1 : -1;
+            boolean ahead = sign * from > sign * position || (from == position && !passed);
 
+            if (wanted == direction && ahead) {
+                return time + state.getRouteTimeMs(position, from);
+            }
+
+            // доезжаем до крайней остановки прохода; встречный пассажир продлевает проход до себя
+            int extent = direction == Direction.UP
+                    ? Math.max(position, state.getHighestPlannedStop(position))
+                    : Math.min(position, state.getLowestPlannedStop(position));
+            if (wanted != direction && sign * from > sign * extent) {
+                extent = from;
+            }
 
-            baseScore *= 2.0;
+            time += state.getRouteTimeMs(position, extent);
+            if (extent != position && extent != from && state.isPlannedStop(extent)) {
+                time += Elevator.DOOR_OPEN_MS;
+            }
+
+            position = extent;
+            passed = false;
+            direction = direction == Direction.UP ? Direction.DOWN : Direction.UP;
         }
+        return time;
+    }
 
-        // учет этажа пассажира
-        if (passengerFloor == 1 || passengerFloor == maxFloors) {
-            baseScore *= 0.8;
+    /*
+     * оценка для назначения по этажу назначения: на сколько удлинится маршрут лифта,
+     * если взять пассажира (крюк до посадки плюс крюк до высадки) на крейсерской скорости,
+     * и новые остановки со стоянкой, разгоном и торможением, в мс.
+     * маршрут - проходы LOOK: вперед до крайней цели, разворот, обратно до крайней цели.
+     * расчет в координатах, где лифт едет "вверх" (x = этаж или -этаж).
+     * дробная часть - прогноз времени до посадки / 10^6, различает равные по стоимости лифты
+     */
+    double calculateDestinationScore(Elevator elevator, PassengerRequest request) {
+        ElevatorSnapshot state = elevator.getSnapshot();
+        long now = clock.currentTimeMillis();
+        if (state.isFull() || !state.acceptsCall(request.getFromFloor(), request.getRequestedDirection(), now)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int currentFloor = state.getFloorAt(now);
+        int from = request.getFromFloor();
+        int to = request.getToFloor();
+
+        Direction direction = state.getDirection();
+        if (direction == Direction.IDLE) {
+            direction = from > currentFloor ? Direction.UP
+                    : from < currentFloor ? Direction.DOWN : request.getRequestedDirection();
         }
+        int sign = direction == Direction.UP ? 1 : -1;
+
+        int cur = sign * currentFloor;
+        int pickup = sign * from;
+        int dropoff = sign * to;
+        int far = sign * (sign > 0 ? state.getHighestPlannedStop(currentFloor) : state.getLowestPlannedStop(currentFloor));
+        int back = sign * (sign > 0 ? state.getLowestPlannedStop(currentFloor) : state.getHighestPlannedStop(currentFloor));
+        far = Math.max(far, cur);
+        boolean hasBack = back < cur;
+
+        int oldLength = (far - cur) + (hasBack ? far - back : 0);
+        int newLength;
+
+        boolean passedPickup = pickup < cur || (pickup == cur && state.getStatus() == ElevatorStatus.MOVING);
+        if (request.getRequestedDirection() == direction && !passedPickup) {
+            // по ходу: проход вперед продлевается до высадки
+            int newFar = Math.max(far, dropoff);
+            newLength = (newFar - cur) + (hasBack ? newFar - back : 0);
+        } else if (request.getRequestedDirection() != direction) {
+            // встречный: забираем после разворота, обратный проход до высадки
+            int newFar = Math.max(far, pickup);
+            int newBack = hasBack ? Math.min(back, dropoff) : dropoff;
+            newLength = (newFar - cur) + (newFar - newBack);
+        } else {
+            // попутный, но позади: вперед, обратно до посадки и третий проход до высадки
+            int newBack = hasBack ? Math.min(back, pickup) : pickup;
+            newLength = (far - cur) + (far - newBack) + (dropoff - newBack);
+        }
+
+        int newStops = (state.isPlannedStop(from) ? 0 : 1) + (state.isPlannedStop(to) ? 0 : 1);
+
+        MotionProfile motion = state.getMotion();
+        return (newLength - oldLength) * motion.cruiseFloorMs()
+                + newStops * (Elevator.DOOR_OPEN_MS + motion.stopLossMs())
+                + estimatePickupTime(state, request, now) / 1_000_000.0;
+    }
 
+    /* время ожидания и поездки по всему дому */
+    @Override
+    public String getPassengerStatistics() {
+        LatencyHistogram waitTimes = new LatencyHistogram();
+        LatencyHistogram rideTimes = new LatencyHistogram();
 
+        for (Elevator elevator : getElevators()) {
+            waitTimes.merge(elevator.getWaitTimes());
+            rideTimes.merge(elevator.getRideTimes());
+        }
 
-        return baseScore;
+        return "Ожидание: " + waitTimes.getSummary() + "\n" +
+                "Поездка: " + rideTimes.getSummary();
     }
 
     /* статистика по всем лифтам */
@@ -256,13 +667,16 @@ public class Dispatcher implements Runnable {
         sb.append("СТАТУС ВСЕХ ЛИФТОВ\n");
 
         for (Elevator elevator : elevators) {
+            ElevatorSnapshot state = elevator.getSnapshot();
             sb.append(String.format(
-                    "Лифт %d: этаж %d, %s, цели: %d, пассажиров: %d\n",
-                    elevator.getId(),
-                    elevator.getCurrentFloor(),
-                    elevator.getDirection(),
-                    elevator.getTargetsCount(),
-                    elevator.getPassengersServed()
+                    "Лифт %d: этаж %d, %s, цели: %d, в кабине: %d/%d, пассажиров: %d\n",
+                    state.getId(),
+                    state.getCurrentFloor(),
+                    state.getDirection(),
+                    state.getTargetsCount(),
+                    state.getLoad(),
+                    state.getCapacity(),
+                    state.getPassengersServed()
             ));
         }
 
@@ -281,8 +695,10 @@ public class Dispatcher implements Runnable {
     }
 
 
+    /* новые и отложенные запросы */
+    @Override
     public synchronized int getPendingRequestsCount() {
-        return requests.size();
+        return requests.size() + parkedCount;
     }
 
     public synchronized String getDispatcherInfo() {
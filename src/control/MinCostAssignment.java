@@ -0,0 +1,100 @@
+package control;
+
+import java.util.Arrays;
+
+/*
+ * назначение минимальной стоимости (венгерский алгоритм с потенциалами) для прямоугольной
+ * матрицы: каждой строке не больше одного столбца и наоборот. бесконечность - пара недопустима;
+ * сначала набирается наибольшее число допустимых пар, среди таких наборов - самый дешевый
+ */
+final class MinCostAssignment {
+
+    // стоимость недопустимой пары: больше любой суммы допустимых оценок (мс ожидания)
+    private static final double FORBIDDEN = 1e12;
+
+    private MinCostAssignment() {}
+
+    /* для каждого столбца - строка назначения, -1 - столбец без допустимой пары */
+    static int[] solve(double[][] cost, int columns) {
+        int rows = cost.length;
+        int[] rowOfColumn = new int[columns];
+        Arrays.fill(rowOfColumn, -1);
+        if (rows == 0 || columns == 0) {
+            return rowOfColumn;
+        }
+
+        // алгоритм ведет строки по одной, их должно быть не больше столбцов - иначе транспонируем
+        boolean transposed = rows > columns;
+        int n = transposed ? columns : rows;
+        int m = transposed ? rows : columns;
+
+        // индексы с 1: столбец 0 - фиктивный, с него начинается поиск увеличивающего пути
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] match = new int[m + 1]; // строка, занявшая столбец; 0 - свободен
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[column] = true;
+                int row = match[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int next = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double slack = cost(cost, transposed, row - 1, j - 1) - u[row] - v[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        next = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = next;
+            } while (match[column] != 0);
+
+            // разворот увеличивающего пути
+            do {
+                int previous = way[column];
+                match[column] = match[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        for (int j = 1; j <= m; j++) {
+            if (match[j] == 0) {
+                continue;
+            }
+            int row = transposed ? j - 1 : match[j] - 1;
+            int col = transposed ? match[j] - 1 : j - 1;
+            if (cost[row][col] < Double.POSITIVE_INFINITY) {
+                rowOfColumn[col] = row;
+            }
+        }
+        return rowOfColumn;
+    }
+
+    private static double cost(double[][] cost, boolean transposed, int i, int j) {
+        double value = transposed ? cost[j][i] : cost[i][j];
+        return value < Double.POSITIVE_INFINITY ? value : FORBIDDEN;
+    }
+}
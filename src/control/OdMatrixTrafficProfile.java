@@ -0,0 +1,180 @@
+package control;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * профиль из файла: матрица "отправление - назначение" весами пар этажей
+ * и необязательное расписание интенсивности. формат, по записи в строке:
+ *   rate <минута> <вызовов в минуту>  - интенсивность с этой минуты
+ *   <с этажа> <на этаж> <вес>         - доля пары в потоке
+ * пустые строки и текст после # пропускаются. до первой строки rate
+ * действует интенсивность по умолчанию
+ */
+public final class OdMatrixTrafficProfile implements TrafficProfile {
+
+    private final String name;
+    private final int[] fromFloors;
+    private final int[] toFloors;
+    private final double[] cumulativeWeights;
+    private final long[] rateStartsMs;
+    private final double[] rates;
+    private final double defaultRate;
+    private final double maxRate;
+
+    private OdMatrixTrafficProfile(String name, int[] fromFloors, int[] toFloors, double[] cumulativeWeights,
+                                   long[] rateStartsMs, double[] rates, double defaultRate) {
+        this.name = name;
+        this.fromFloors = fromFloors;
+        this.toFloors = toFloors;
+        this.cumulativeWeights = cumulativeWeights;
+        this.rateStartsMs = rateStartsMs;
+        this.rates = rates;
+        this.defaultRate = defaultRate;
+
+        double max = rateStartsMs.length == 0 || rateStartsMs[0] > 0 ? defaultRate : 0;
+        for (double rate : rates) {
+            max = Math.max(max, rate);
+        }
+        this.maxRate = max;
+    }
+
+    public static OdMatrixTrafficProfile load(Path path, int floors, double defaultRate) throws IOException {
+        List<int[]> pairs = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        List<Long> rateStarts = new ArrayList<>();
+        List<Double> rateValues = new ArrayList<>();
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            String where = "строка " + (i + 1) + ": ";
+            try {
+                if (parts[0].equals("rate")) {
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException(where + "ожидается rate <минута> <вызовов в минуту>");
+                    }
+                    long startMs = Math.round(Double.parseDouble(parts[1]) * 60_000);
+                    double rate = Double.parseDouble(parts[2]);
+                    if (rate < 0 || startMs < 0) {
+                        throw new IllegalArgumentException(where + "отрицательное значение");
+                    }
+                    if (!rateStarts.isEmpty() && startMs <= rateStarts.get(rateStarts.size() - 1)) {
+                        throw new IllegalArgumentException(where + "минуты rate должны возрастать");
+                    }
+                    rateStarts.add(startMs);
+                    rateValues.add(rate);
+                    continue;
+                }
+
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException(where + "ожидается <с этажа> <на этаж> <вес>");
+                }
+                int from = Integer.parseInt(parts[0]);
+                int to = Integer.parseInt(parts[1]);
+                double weight = Double.parseDouble(parts[2]);
+                if (from < 1 || from > floors || to < 1 || to > floors) {
+                    throw new IllegalArgumentException(where + "этаж вне диапазона 1.." + floors);
+                }
+                if (from == to) {
+                    throw new IllegalArgumentException(where + "этаж вызова совпадает с этажом назначения");
+                }
+                if (weight < 0) {
+                    throw new IllegalArgumentException(where + "отрицательный вес");
+                }
+                if (weight > 0) {
+                    pairs.add(new int[]{from, to});
+                    weights.add(weight);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(where + "некорректное число");
+            }
+        }
+
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("в матрице нет ни одной пары этажей с положительным весом");
+        }
+
+        int[] fromFloors = new int[pairs.size()];
+        int[] toFloors = new int[pairs.size()];
+        double[] cumulative = new double[pairs.size()];
+        double total = 0;
+        for (int i = 0; i < pairs.size(); i++) {
+            fromFloors[i] = pairs.get(i)[0];
+            toFloors[i] = pairs.get(i)[1];
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+
+        long[] starts = new long[rateStarts.size()];
+        double[] rates = new double[rateValues.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = rateStarts.get(i);
+            rates[i] = rateValues.get(i);
+        }
+
+        return new OdMatrixTrafficProfile(path.getFileName().toString(), fromFloors, toFloors, cumulative,
+                starts, rates, defaultRate);
+    }
+
+    @Override
+    public double ratePerMinute(long elapsedMs) {
+        // последняя строка rate, начавшая действовать к этому моменту
+        int index = -1;
+        int low = 0;
+        int high = rateStartsMs.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (rateStartsMs[mid] <= elapsedMs) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return index < 0 ? defaultRate : rates[index];
+    }
+
+    @Override
+    public double maxRatePerMinute() {
+        return maxRate;
+    }
+
+    @Override
+    public int[] nextTrip(Random random, long elapsedMs) {
+        double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+
+        // первая пара, накопленный вес которой больше точки
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] > point) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return new int[]{fromFloors[low], toFloors[low]};
+    }
+
+    @Override
+    public String getName() {
+        return "матрица " + name;
+    }
+}
@@ -1,23 +1,50 @@
 package control;
 
 import model.Direction;
+import util.ExecutionMode;
 import util.GuiLogger;
+import util.SimulationClock;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class PassengerGenerator {
-    private final Dispatcher dispatcher;
+    /* результат nextArrivalDelay(): вызовов по профилю больше не будет */
+    public static final long NO_MORE_ARRIVALS = Long.MAX_VALUE;
+    // сколько вперед искать следующий вызов при нулевой интенсивности
+    private static final long ARRIVAL_HORIZON_MS = 24 * 3_600_000L;
+
+    private final RequestTarget dispatcher;
     private final int maxFloors;
-    private final Random random = new Random();
+    private final Random random;
     private int nextUserId = 1;
-    private ScheduledExecutorService scheduler;
+    private final SimulationClock clock;
+    // лог симуляции диспетчера
+    private final GuiLogger log;
+    private ExecutorService scheduler;
+    private volatile ExecutionMode executionMode = ExecutionMode.PLATFORM;
     private volatile boolean isRunning = false;
+    // null - прежний режим: фиксированный интервал и равномерные пары этажей
+    private volatile TrafficProfile profile;
+    private final TrafficProfile uniformTrips;
+
+    public PassengerGenerator(RequestTarget dispatcher, int maxFloors, SimulationClock clock) {
+        this(dispatcher, maxFloors, clock, new Random());
+    }
 
-    public PassengerGenerator(Dispatcher dispatcher, int maxFloors) {
+    /* генератор с фиксированным seed дает воспроизводимую последовательность вызовов */
+    public PassengerGenerator(RequestTarget dispatcher, int maxFloors, SimulationClock clock, long seed) {
+        this(dispatcher, maxFloors, clock, new Random(seed));
+    }
+
+    private PassengerGenerator(RequestTarget dispatcher, int maxFloors, SimulationClock clock, Random random) {
         this.dispatcher = dispatcher;
         this.maxFloors = maxFloors;
+        this.clock = clock;
+        this.log = dispatcher.getLog();
+        this.random = random;
+        this.uniformTrips = TrafficProfile.uniform(maxFloors, 0);
     }
 
     public void start(int intervalMs) {
@@ -26,21 +53,41 @@ public class PassengerGenerator {
         }
 
         isRunning = true;
-        scheduler = Executors.newSingleThreadScheduledExecutor();
-
-        scheduler.scheduleAtFixedRate(() -> {
-            if (!isRunning) {
-                return;
-            }
+        scheduler = Executors.newSingleThreadExecutor(executionMode.threadFactory("PassengerGenerator"));
 
+        // генерация с фиксированной частотой по часам симуляции;
+        // участник регистрируется здесь, а не в потоке: часы не уйдут вперед, пока поток ждет запуска
+        clock.register();
+        scheduler.execute(() -> {
             try {
-                generateRandomRequest();
-            } catch (Exception e) {
-                GuiLogger.log("Ошибка генератора: " + e.getMessage());
+                long start = clock.currentTimeMillis();
+                long nextRun = start;
+
+                while (isRunning && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        generateRandomRequest(nextRun - start);
+                    } catch (Exception e) {
+                        log.log("Ошибка генератора: " + e.getMessage());
+                    }
+
+                    long arrivalDelay = nextArrivalDelay(nextRun - start, intervalMs);
+                    if (arrivalDelay == NO_MORE_ARRIVALS) {
+                        break;
+                    }
+                    nextRun += arrivalDelay;
+                    long delay = nextRun - clock.currentTimeMillis();
+                    if (delay > 0) {
+                        clock.sleep(delay);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                clock.unregister();
             }
-        }, 0, intervalMs, TimeUnit.MILLISECONDS);
+        });
 
-        GuiLogger.log("Генератор запросов запущен (интервал: " + intervalMs + "мс)");
+        log.log("Генератор запросов запущен (интервал: " + intervalMs + "мс)");
     }
 
     public void stop() {
@@ -50,29 +97,67 @@ public class PassengerGenerator {
 
         isRunning = false;
         if (scheduler != null) {
-            scheduler.shutdown();
+            // прерываем ожидание следующей генерации; не начатая задача снимает свою регистрацию здесь
+            for (Runnable notStarted : scheduler.shutdownNow()) {
+                clock.unregister();
+            }
             try {
-                if (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
             } catch (InterruptedException e) {
-                scheduler.shutdownNow();
                 Thread.currentThread().interrupt();
             }
         }
 
-        GuiLogger.log("Генератор запросов остановлен");
+        log.log("Генератор запросов остановлен");
+    }
+
+    /* поток генерации: обычный или виртуальный; действует со следующего start */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /* пуассоновский поток с интенсивностью и парами этажей по профилю; null - фиксированный интервал */
+    public void setTrafficProfile(TrafficProfile profile) {
+        this.profile = profile;
     }
 
-    private void generateRandomRequest() {
-        // Генерация случайного этажа вызова
-        int fromFloor = random.nextInt(maxFloors) + 1;
+    public TrafficProfile getTrafficProfile() {
+        return profile;
+    }
 
-        // Генерация целевого этажа
-        int toFloor;
-        do {
-            toFloor = random.nextInt(maxFloors) + 1;
-        } while (toFloor == fromFloor);
+    /*
+     * задержка от момента elapsedMs (с начала генерации) до следующего вызова.
+     * без профиля - intervalMs; с профилем - прореживание пуассоновского потока:
+     * кандидаты идут с максимальной интенсивностью, кандидат принимается
+     * с вероятностью rate(t) / max
+     */
+    public long nextArrivalDelay(long elapsedMs, long intervalMs) {
+        TrafficProfile current = profile;
+        if (current == null) {
+            return intervalMs;
+        }
+
+        double maxRate = current.maxRatePerMinute();
+        if (maxRate <= 0) {
+            return NO_MORE_ARRIVALS;
+        }
+
+        double time = elapsedMs;
+        while (time - elapsedMs < ARRIVAL_HORIZON_MS) {
+            time += -Math.log(1 - random.nextDouble()) * 60_000.0 / maxRate;
+            if (random.nextDouble() * maxRate < current.ratePerMinute((long) time)) {
+                return Math.round(time) - elapsedMs;
+            }
+        }
+        return NO_MORE_ARRIVALS;
+    }
+
+    /* вызов в момент elapsedMs от начала генерации */
+    public void generateRandomRequest(long elapsedMs) {
+        TrafficProfile current = profile;
+        int[] trip = (current != null ? current : uniformTrips).nextTrip(random, elapsedMs);
+        int fromFloor = trip[0];
+        int toFloor = trip[1];
 
         // Определение направления
         Direction requestedDirection = (toFloor > fromFloor) ? Direction.UP : Direction.DOWN;
@@ -80,11 +165,6 @@ public class PassengerGenerator {
         // Создание запроса
         int userId = nextUserId++;
 
-        GuiLogger.log("Пользователь " + userId +
-                " вызывает лифт с этажа " + fromFloor +
-                " (направление: " + requestedDirection + ")" +
-                " на этаж " + toFloor);
-
         // Отправка запроса диспетчеру
         dispatcher.submitRequest(userId, fromFloor, requestedDirection, toFloor);
     }
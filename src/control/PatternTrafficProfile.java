@@ -0,0 +1,88 @@
+package control;
+
+import java.util.Random;
+
+/*
+ * типовой профиль: доли потока из вестибюля, в вестибюль и между этажами.
+ * доли меняются линейно от начала к концу периода, остаток - межэтажный поток
+ */
+final class PatternTrafficProfile implements TrafficProfile {
+
+    private final String name;
+    private final int floors;
+    private final double peakRate;
+    private final long durationMs;
+    private final boolean peaked;
+    private final double incomingStart;
+    private final double incomingEnd;
+    private final double outgoingStart;
+    private final double outgoingEnd;
+
+    PatternTrafficProfile(String name, int floors, double peakRate, long durationMs, boolean peaked,
+                          double incomingStart, double incomingEnd, double outgoingStart, double outgoingEnd) {
+        if (floors < 2 || peakRate < 0) {
+            throw new IllegalArgumentException("Некорректные параметры профиля потока");
+        }
+        this.name = name;
+        this.floors = floors;
+        this.peakRate = peakRate;
+        this.durationMs = durationMs;
+        this.peaked = peaked;
+        this.incomingStart = incomingStart;
+        this.incomingEnd = incomingEnd;
+        this.outgoingStart = outgoingStart;
+        this.outgoingEnd = outgoingEnd;
+    }
+
+    @Override
+    public double ratePerMinute(long elapsedMs) {
+        if (!peaked) {
+            return peakRate;
+        }
+        // от четверти пиковой к пиковой в середине периода и обратно; после периода - четверть
+        return peakRate * (0.25 + 0.75 * Math.sin(Math.PI * progress(elapsedMs)));
+    }
+
+    @Override
+    public double maxRatePerMinute() {
+        return peakRate;
+    }
+
+    @Override
+    public int[] nextTrip(Random random, long elapsedMs) {
+        double progress = progress(elapsedMs);
+        double incoming = incomingStart + (incomingEnd - incomingStart) * progress;
+        double outgoing = outgoingStart + (outgoingEnd - outgoingStart) * progress;
+
+        // у равномерного профиля жребий категории не тянется: последовательность как у прежнего генератора
+        if (incoming + outgoing > 0) {
+            double category = random.nextDouble();
+            if (category < incoming) {
+                return new int[]{LOBBY, LOBBY + 1 + random.nextInt(floors - 1)};
+            }
+            if (category < incoming + outgoing) {
+                return new int[]{LOBBY + 1 + random.nextInt(floors - 1), LOBBY};
+            }
+        }
+
+        int fromFloor = random.nextInt(floors) + 1;
+        int toFloor;
+        do {
+            toFloor = random.nextInt(floors) + 1;
+        } while (toFloor == fromFloor);
+        return new int[]{fromFloor, toFloor};
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /* доля прошедшего периода 0..1 */
+    private double progress(long elapsedMs) {
+        if (durationMs <= 0) {
+            return 0;
+        }
+        return Math.min(1.0, Math.max(0, elapsedMs) / (double) durationMs);
+    }
+}
@@ -0,0 +1,24 @@
+package control;
+
+import model.Direction;
+import util.GuiLogger;
+
+/*
+ * куда подаются вызовы пассажиров: диспетчер одного банка лифтов
+ * или маршрутизатор многозонного здания поверх нескольких диспетчеров
+ */
+public interface RequestTarget {
+
+    void submitRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor);
+
+    /* лог симуляции */
+    GuiLogger getLog();
+
+    String getStatistics();
+
+    /* время ожидания и поездки по всему дому */
+    String getPassengerStatistics();
+
+    /* вызовы в очереди и отложенные */
+    int getPendingRequestsCount();
+}
@@ -0,0 +1,138 @@
+package control;
+
+import model.Direction;
+import model.PassengerRequest;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * чтение журнала вызовов для повтора. время вызова (getRequestTime) -
+ * мс от начала журнала. двоичный формат пишет RequestTraceWriter,
+ * файл с расширением .csv разбирается как текст:
+ *   время_мс,пользователь,с_этажа,направление,на_этаж
+ * направление UP/DOWN, пустое - по этажам; строка заголовка пропускается
+ */
+public final class RequestTrace {
+
+    private RequestTrace() {}
+
+    public static List<PassengerRequest> read(Path path) throws IOException {
+        if (path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return readCsv(path);
+        }
+        return readBinary(path);
+    }
+
+    public static List<PassengerRequest> readBinary(Path path) throws IOException {
+        List<PassengerRequest> trace = new ArrayList<>();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != RequestTraceWriter.MAGIC) {
+                throw new IOException(path + " - не журнал вызовов");
+            }
+            int version = in.readUnsignedByte();
+            if (version != RequestTraceWriter.VERSION) {
+                throw new IOException("неподдерживаемая версия журнала вызовов " + version);
+            }
+
+            long time = 0;
+            while (true) {
+                int first = in.read();
+                if (first < 0) {
+                    return trace;
+                }
+
+                time += readVarLong(in, first);
+                int userId = (int) readVarLong(in, in.readUnsignedByte());
+                long from = readVarLong(in, in.readUnsignedByte());
+                int toFloor = (int) readVarLong(in, in.readUnsignedByte());
+
+                Direction direction = (from & 1) != 0 ? Direction.UP : Direction.DOWN;
+                trace.add(new PassengerRequest(userId, (int) (from >>> 1), direction, toFloor, time));
+            }
+        } catch (EOFException e) {
+            throw new IOException("журнал вызовов " + path + " обрезан");
+        }
+    }
+
+    private static long readVarLong(DataInputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    public static List<PassengerRequest> readCsv(Path path) throws IOException {
+        List<PassengerRequest> trace = new ArrayList<>();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+
+        long lastTime = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] parts = line.split(",", -1);
+            String where = "строка " + (i + 1) + ": ";
+            if (parts.length != 5) {
+                throw new IllegalArgumentException(where + "ожидается время_мс,пользователь,с_этажа,направление,на_этаж");
+            }
+
+            long time;
+            try {
+                time = Long.parseLong(parts[0].trim());
+            } catch (NumberFormatException e) {
+                if (trace.isEmpty() && i == firstNonEmpty(lines)) {
+                    continue; // заголовок
+                }
+                throw new IllegalArgumentException(where + "некорректное время");
+            }
+
+            try {
+                int userId = Integer.parseInt(parts[1].trim());
+                int fromFloor = Integer.parseInt(parts[2].trim());
+                int toFloor = Integer.parseInt(parts[4].trim());
+                String directionText = parts[3].trim().toUpperCase();
+
+                Direction direction;
+                if (directionText.isEmpty()) {
+                    direction = toFloor > fromFloor ? Direction.UP : Direction.DOWN;
+                } else if (directionText.equals("UP") || directionText.equals("DOWN")) {
+                    direction = Direction.valueOf(directionText);
+                } else {
+                    throw new IllegalArgumentException(where + "направление UP или DOWN");
+                }
+
+                if (time < lastTime) {
+                    throw new IllegalArgumentException(where + "время не должно убывать");
+                }
+                lastTime = time;
+
+                trace.add(new PassengerRequest(userId, fromFloor, direction, toFloor, time));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(where + "некорректное число");
+            }
+        }
+        return trace;
+    }
+
+    private static int firstNonEmpty(List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).isBlank()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+package control;
+
+import model.Direction;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * запись вызовов, поступивших диспетчеру, в компактный двоичный журнал.
+ * заголовок - сигнатура и версия, дальше по записи на вызов:
+ * приращение времени с прошлой записи, пользователь, этаж вызова
+ * со сдвинутым битом направления и этаж назначения - все числа varint,
+ * обычно 5-7 байт на вызов
+ */
+public class RequestTraceWriter implements Closeable {
+
+    static final int MAGIC = 0x454C5452; // "ELTR"
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private long lastTime;
+
+    public RequestTraceWriter(Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /* момент начала симуляции по ее часам; время в журнале отсчитывается от него */
+    public synchronized void setOrigin(long origin) {
+        this.lastTime = origin;
+    }
+
+    public synchronized void record(long time, int userId, int fromFloor, Direction direction, int toFloor) {
+        try {
+            // часы не идут назад, но вызовы из разных потоков могут прийти вперемешку
+            long delta = Math.max(0, time - lastTime);
+            lastTime = Math.max(lastTime, time);
+
+            writeVarLong(delta);
+            writeVarLong(userId & 0xFFFFFFFFL);
+            writeVarLong(((fromFloor & 0xFFFFFFFFL) << 1) | (direction == Direction.UP ? 1 : 0));
+            writeVarLong(toFloor & 0xFFFFFFFFL);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,60 @@
+package control;
+
+import model.PassengerRequest;
+import util.SimulationClock;
+
+import java.util.List;
+
+/*
+ * повтор журнала вызовов в потоковом режиме: участник симуляции, который
+ * подает вызовы диспетчеру в записанные моменты. speed > 1 сжимает время
+ * журнала (ускоренный повтор), пользователи и этажи - как в журнале.
+ * запускается через ExecutionMode.startParticipant
+ */
+public class TraceReplayer implements Runnable {
+
+    private final RequestTarget dispatcher;
+    private final List<PassengerRequest> trace;
+    private final SimulationClock clock;
+    private final double speed;
+    private volatile boolean finished = false;
+
+    public TraceReplayer(RequestTarget dispatcher, List<PassengerRequest> trace, SimulationClock clock, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Скорость повтора должна быть положительной");
+        }
+        this.dispatcher = dispatcher;
+        this.trace = trace;
+        this.clock = clock;
+        this.speed = speed;
+    }
+
+    /* момент подачи вызова от начала повтора */
+    public static long replayTime(PassengerRequest request, double speed) {
+        return Math.round(request.getRequestTime() / speed);
+    }
+
+    @Override
+    public void run() {
+        try {
+            long start = clock.currentTimeMillis();
+            for (PassengerRequest request : trace) {
+                long delay = start + replayTime(request, speed) - clock.currentTimeMillis();
+                if (delay > 0) {
+                    clock.sleep(delay);
+                }
+                dispatcher.submitRequest(request.getUserId(), request.getFromFloor(),
+                        request.getRequestedDirection(), request.getToFloor());
+            }
+            dispatcher.getLog().log("Повтор журнала завершен: " + trace.size() + " вызовов");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finished = true;
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
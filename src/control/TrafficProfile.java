@@ -0,0 +1,50 @@
+package control;
+
+import java.util.Random;
+
+/*
+ * профиль пассажиропотока: интенсивность вызовов во времени и распределение
+ * пар "этаж вызова - этаж назначения". время - мс от начала генерации
+ */
+public interface TrafficProfile {
+
+    /* главный вход здания */
+    int LOBBY = 1;
+
+    /* интенсивность в момент elapsedMs, вызовов в минуту */
+    double ratePerMinute(long elapsedMs);
+
+    /* верхняя граница интенсивности за все время */
+    double maxRatePerMinute();
+
+    /* пара {этаж вызова, этаж назначения} для пассажира, появившегося в момент elapsedMs */
+    int[] nextTrip(Random random, long elapsedMs);
+
+    String getName();
+
+    /* равномерный поток: постоянная интенсивность, любые пары этажей */
+    static TrafficProfile uniform(int floors, double ratePerMinute) {
+        return new PatternTrafficProfile("равномерный", floors, ratePerMinute, 0, false, 0, 0, 0, 0);
+    }
+
+    /*
+     * утренний пик: в основном из вестибюля наверх. интенсивность растет от четверти
+     * пиковой до пиковой к середине периода и снова спадает
+     */
+    static TrafficProfile upPeak(int floors, double peakRatePerMinute, long durationMs) {
+        return new PatternTrafficProfile("утренний пик", floors, peakRatePerMinute, durationMs, true,
+                0.85, 0.85, 0.05, 0.05);
+    }
+
+    /* вечерний пик: в основном с этажей в вестибюль */
+    static TrafficProfile downPeak(int floors, double peakRatePerMinute, long durationMs) {
+        return new PatternTrafficProfile("вечерний пик", floors, peakRatePerMinute, durationMs, true,
+                0.05, 0.05, 0.85, 0.85);
+    }
+
+    /* обед: сначала преобладает поток вниз, к концу - обратно наверх, пятая часть - между этажами */
+    static TrafficProfile lunch(int floors, double peakRatePerMinute, long durationMs) {
+        return new PatternTrafficProfile("обед", floors, peakRatePerMinute, durationMs, true,
+                0.2, 0.6, 0.6, 0.2);
+    }
+}
@@ -0,0 +1,179 @@
+package control;
+
+import model.FloorSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * зона многозонного здания: банк лифтов и этажи, которые он обслуживает.
+ * задается строкой: зоны через запятую, диапазоны этажей внутри зоны через +,
+ * необязательное :N - число лифтов зоны (иначе лифты делятся поровну), например
+ *   1-20,1+21-40        нижняя зона и экспресс из вестибюля в верхнюю
+ *   1-20:3,20-40:2      пересадка на скай-лобби 20
+ * пассажир, которого не довозит одна зона, пересаживается на общем этаже двух зон
+ */
+public final class Zone {
+
+    private final String name;
+    private final FloorSet floors;
+    private final int elevators; // 0 - доля от общего числа
+
+    private Zone(String name, FloorSet floors, int elevators) {
+        this.name = name;
+        this.floors = floors;
+        this.elevators = elevators;
+    }
+
+    /* весь дом одной зоной */
+    public static Zone whole(int maxFloors) {
+        FloorSet floors = new FloorSet(maxFloors);
+        for (int floor = 1; floor <= maxFloors; floor++) {
+            floors.add(floor);
+        }
+        return new Zone("1-" + maxFloors, floors, 0);
+    }
+
+    public static List<Zone> parse(String spec, int maxFloors) {
+        List<Zone> zones = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+
+            int colon = item.indexOf(':');
+            String ranges = colon < 0 ? item : item.substring(0, colon);
+            int elevators = 0;
+            if (colon >= 0) {
+                elevators = Integer.parseInt(item.substring(colon + 1).trim());
+                if (elevators < 1) {
+                    throw new IllegalArgumentException("в зоне " + ranges + " нужен хотя бы один лифт");
+                }
+            }
+
+            FloorSet floors = new FloorSet(maxFloors);
+            for (String range : ranges.split("\\+")) {
+                int dash = range.indexOf('-');
+                int from = Integer.parseInt(range.substring(0, dash < 0 ? range.length() : dash).trim());
+                int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+                if (from < 1 || to > maxFloors || to < from) {
+                    throw new IllegalArgumentException("некорректные этажи зоны " + range);
+                }
+                for (int floor = from; floor <= to; floor++) {
+                    floors.add(floor);
+                }
+            }
+            if (floors.size() < 2) {
+                throw new IllegalArgumentException("зона " + ranges + " должна обслуживать хотя бы два этажа");
+            }
+            zones.add(new Zone(ranges, floors, elevators));
+        }
+
+        if (zones.isEmpty()) {
+            throw new IllegalArgumentException("пустой список зон");
+        }
+        for (int floor = 1; floor <= maxFloors; floor++) {
+            int f = floor;
+            if (zones.stream().noneMatch(zone -> zone.serves(f))) {
+                throw new IllegalArgumentException("этаж " + floor + " не входит ни в одну зону");
+            }
+        }
+        if (!isConnected(zones)) {
+            throw new IllegalArgumentException("из каждой зоны в любую другую нужна пересадка через общие этажи");
+        }
+        return zones;
+    }
+
+    /* лифтов в каждой зоне: заданные явно, остальные поровну (старшим зонам - остаток) */
+    public static int[] elevatorCounts(List<Zone> zones, int total) {
+        int[] counts = new int[zones.size()];
+        int left = total;
+        int shared = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = zones.get(i).elevators;
+            left -= counts[i];
+            if (counts[i] == 0) {
+                shared++;
+            }
+        }
+        if (shared == 0) {
+            return counts;
+        }
+        if (left < shared) {
+            throw new IllegalArgumentException("лифтов меньше, чем зон без заданного числа лифтов");
+        }
+
+        int index = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                counts[i] = left / shared + (index++ < left % shared ? 1 : 0);
+            }
+        }
+        return counts;
+    }
+
+    /* сумма лифтов, если число задано у каждой зоны; иначе 0 */
+    public static int explicitElevators(List<Zone> zones) {
+        int sum = 0;
+        for (Zone zone : zones) {
+            if (zone.elevators == 0) {
+                return 0;
+            }
+            sum += zone.elevators;
+        }
+        return sum;
+    }
+
+    /* граф зон по общим этажам связен */
+    private static boolean isConnected(List<Zone> zones) {
+        boolean[] reached = new boolean[zones.size()];
+        ArrayList<Integer> stack = new ArrayList<>(List.of(0));
+        reached[0] = true;
+        while (!stack.isEmpty()) {
+            Zone zone = zones.get(stack.remove(stack.size() - 1));
+            for (int i = 0; i < zones.size(); i++) {
+                if (!reached[i] && zone.transferFloor(zones.get(i), 0, 0) > 0) {
+                    reached[i] = true;
+                    stack.add(i);
+                }
+            }
+        }
+        for (boolean r : reached) {
+            if (!r) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* общий с other этаж пересадки, ближайший к пути from -> to; -1 - общих этажей нет */
+    public int transferFloor(Zone other, int from, int to) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int floor = floors.first(); floor >= 0; floor = floors.nextSetBit(floor + 1)) {
+            if (!other.serves(floor)) {
+                continue;
+            }
+            int distance = Math.abs(from - floor) + Math.abs(floor - to);
+            if (distance < bestDistance) {
+                best = floor;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    public boolean serves(int floor) {
+        return floors.contains(floor);
+    }
+
+    /* с этого этажа лифты зоны начинают работу */
+    public int getLowestFloor() {
+        return floors.first();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
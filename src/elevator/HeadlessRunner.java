@@ -0,0 +1,615 @@
+package elevator;
+
+import control.DispatchMode;
+import control.DispatchRouter;
+import control.Dispatcher;
+import control.OdMatrixTrafficProfile;
+import control.PassengerGenerator;
+import control.RequestTarget;
+import control.RequestTrace;
+import control.RequestTraceWriter;
+import control.TraceReplayer;
+import control.TrafficProfile;
+import control.Zone;
+import event.BinaryEventSink;
+import event.CounterEventSink;
+import event.EventBus;
+import event.EventSink;
+import event.TextEventSink;
+import model.Elevator;
+import model.MotionProfile;
+import model.PassengerRequest;
+import sim.EventDrivenSimulation;
+import util.ExecutionMode;
+import util.GuiLogger;
+import util.RealTimeClock;
+import util.SimulationClock;
+import util.VirtualClock;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * пакетный режим без Swing: прогон симуляции с параметрами из командной строки
+ * и вывод итогового отчета. пример:
+ *   java elevator.Main --floors=20 --elevators=4 --rate=30 --duration=3600 --seed=7
+ */
+public class HeadlessRunner {
+
+    // сколько виртуального времени даем потоковому режиму на развоз оставшихся пассажиров
+    private static final long DRAIN_LIMIT_MS = 5 * 60 * 1000;
+
+    private HeadlessRunner() {}
+
+    /* параметры запуска */
+    static class Options {
+        int floors = 10;
+        int elevators = 3;
+        int capacity = Elevator.DEFAULT_CAPACITY;
+        double floorHeight = MotionProfile.DEFAULT.getFloorHeight();
+        double speed = MotionProfile.DEFAULT.getMaxSpeed();
+        double acceleration = MotionProfile.DEFAULT.getAcceleration();
+        double jerk = MotionProfile.DEFAULT.getJerk();
+        double ratePerMinute = 20.0;
+        long durationSec = 3600;
+        long seed = 1;
+        String engine = "events";
+        String clock = "virtual";
+        DispatchMode dispatch = DispatchMode.GREEDY;
+        long batchWindowMs = 500;
+        String traffic = null;
+        String trafficFile = null;
+        String recordPath = null;
+        String replayPath = null;
+        double replaySpeed = 1.0;
+        String reportPath = null;
+        String logPath = null;
+        String eventsPath = null;
+        String zonesSpec = null;
+        // null - дом из одной зоны
+        List<Zone> zones = null;
+        boolean verbose = false;
+
+        long arrivalIntervalMs() {
+            return Math.max(1, Math.round(60_000.0 / ratePerMinute));
+        }
+
+        MotionProfile motion() {
+            return new MotionProfile(floorHeight, speed, acceleration, jerk);
+        }
+
+        List<Zone> zones() {
+            return zones != null ? zones : List.of(Zone.whole(floors));
+        }
+    }
+
+    public static int run(String[] args) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка параметров: " + e.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        if (options == null) {
+            printUsage();
+            return 0;
+        }
+
+        TrafficProfile traffic;
+        try {
+            traffic = createTrafficProfile(options);
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать профиль потока: " + e.getMessage());
+            return 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка в профиле потока: " + e.getMessage());
+            return 2;
+        }
+
+        List<PassengerRequest> trace = null;
+        if (options.replayPath != null) {
+            try {
+                trace = RequestTrace.read(Path.of(options.replayPath));
+            } catch (IOException e) {
+                System.err.println("Не удалось прочитать журнал вызовов: " + e.getMessage());
+                return 1;
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ошибка в журнале вызовов: " + e.getMessage());
+                return 2;
+            }
+        }
+
+        RequestTraceWriter traceWriter = null;
+        if (options.recordPath != null) {
+            try {
+                traceWriter = new RequestTraceWriter(Path.of(options.recordPath));
+            } catch (IOException e) {
+                System.err.println("Не удалось открыть файл записи вызовов: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        // лог этого прогона; часы симуляции ему назначает движок
+        GuiLogger log = new GuiLogger();
+        log.initConsole(options.verbose ? System.out : null);
+        if (options.logPath != null) {
+            try {
+                log.setFileSink(Path.of(options.logPath));
+            } catch (IOException e) {
+                System.err.println("Не удалось открыть файл лога: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        // получатели событий: счетчики для отчета, текст - только если лог кому-то нужен
+        CounterEventSink counters = new CounterEventSink();
+        List<EventSink> sinks = new ArrayList<>();
+        sinks.add(counters);
+        if (options.verbose || options.logPath != null) {
+            sinks.add(new TextEventSink(log));
+        }
+
+        BinaryEventSink binarySink = null;
+        if (options.eventsPath != null) {
+            try {
+                binarySink = new BinaryEventSink(Path.of(options.eventsPath));
+                sinks.add(binarySink);
+            } catch (IOException e) {
+                System.err.println("Не удалось открыть журнал событий: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        long realStart = System.nanoTime();
+        Workload workload = new Workload(traffic, trace, traceWriter);
+        String report = !options.engine.equals("events")
+                ? runThreaded(options, workload, log, sinks, realStart)
+                : runEventDriven(options, workload, log, sinks, realStart);
+        report += counters.getSummary();
+
+        log.close();
+        if (traceWriter != null) {
+            try {
+                traceWriter.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка записи журнала вызовов: " + e.getMessage());
+            }
+        }
+        if (binarySink != null) {
+            try {
+                binarySink.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка записи журнала событий: " + e.getMessage());
+            }
+        }
+
+        if (options.reportPath == null) {
+            System.out.println(report);
+            return 0;
+        }
+
+        try (PrintStream out = new PrintStream(new FileOutputStream(options.reportPath), true, StandardCharsets.UTF_8)) {
+            out.println(report);
+        } catch (IOException e) {
+            System.err.println("Не удалось записать отчет: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+
+    private static String runEventDriven(Options options, Workload workload, GuiLogger log,
+                                         List<EventSink> sinks, long realStart) {
+        EventDrivenSimulation simulation = new EventDrivenSimulation(
+                options.floors, options.zones(), options.elevators, options.capacity, options.motion(),
+                options.arrivalIntervalMs(), options.seed, log);
+        sinks.forEach(simulation.getEvents()::addSink);
+        configure(simulation.getDispatchers(), simulation.getRouter(), options, workload, simulation.getClock());
+        simulation.getGenerator().setTrafficProfile(workload.traffic);
+        if (workload.trace != null) {
+            simulation.setTrace(workload.trace, options.replaySpeed);
+        }
+
+        simulation.run(options.durationSec * 1000);
+
+        return buildReport(options, workload, simulation.getRequestTarget(), simulation.getElevators(),
+                simulation.getClock().currentTimeMillis(), realStart);
+    }
+
+    private static String runThreaded(Options options, Workload workload, GuiLogger log,
+                                      List<EventSink> sinks, long realStart) {
+        SimulationClock clock = options.clock.equals("real") ? new RealTimeClock() : new VirtualClock();
+        ExecutionMode execution = options.engine.equals("virtual") ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM;
+        log.setClock(clock);
+        EventBus events = new EventBus(clock, log);
+        sinks.forEach(events::addSink);
+        long simulationStart = clock.currentTimeMillis();
+
+        // по диспетчеру со своим потоком на зону, лифты - как в событийном движке
+        List<Zone> zones = options.zones();
+        int[] counts = Zone.elevatorCounts(zones, options.elevators);
+        List<Elevator> elevators = new ArrayList<>();
+        List<Dispatcher> dispatchers = new ArrayList<>();
+        for (int z = 0; z < zones.size(); z++) {
+            List<Elevator> bank = new ArrayList<>();
+            for (int i = 0; i < counts[z]; i++) {
+                bank.add(new Elevator(elevators.size() + bank.size() + 1, zones.get(z).getLowestFloor(),
+                        options.floors, options.capacity, options.motion(), clock, events));
+            }
+            elevators.addAll(bank);
+            dispatchers.add(new Dispatcher(bank, options.floors, clock, events));
+        }
+
+        DispatchRouter router = null;
+        RequestTarget target = dispatchers.get(0);
+        if (zones.size() > 1) {
+            router = new DispatchRouter(zones, dispatchers, clock);
+            target = router;
+        }
+        configure(dispatchers, router, options, workload, clock);
+        PassengerGenerator generator = new PassengerGenerator(target, options.floors, clock, options.seed);
+        generator.setTrafficProfile(workload.traffic);
+        generator.setExecutionMode(execution);
+
+        TraceReplayer replayer = workload.trace != null
+                ? new TraceReplayer(target, workload.trace, clock, options.replaySpeed)
+                : null;
+
+        // пока запускаются участники, часы держит этот поток: время не идет без диспетчера и генератора.
+        // дальше он сам участник до остановки генератора
+        clock.register();
+        List<Thread> threads = new ArrayList<>();
+        for (Elevator elevator : elevators) {
+            threads.add(execution.startParticipant("Elevator-" + elevator.getId(), clock, elevator));
+        }
+        for (int z = 0; z < dispatchers.size(); z++) {
+            String name = router == null ? "Dispatcher" : "Dispatcher-" + zones.get(z).getName();
+            threads.add(execution.startParticipant(name, clock, dispatchers.get(z)));
+        }
+        if (replayer != null) {
+            threads.add(execution.startParticipant("TraceReplayer", clock, replayer));
+        } else {
+            generator.start((int) options.arrivalIntervalMs());
+        }
+
+        try {
+            try {
+                if (replayer == null) {
+                    // конец генерации по часам симуляции: пока генератор останавливается, время стоит
+                    long left = simulationStart + options.durationSec * 1000 - clock.currentTimeMillis();
+                    if (left > 0) {
+                        clock.sleep(left);
+                    }
+                    generator.stop();
+                }
+            } finally {
+                clock.unregister();
+            }
+
+            while (replayer != null && !replayer.isFinished()) {
+                Thread.sleep(5);
+            }
+
+            // даем лифтам развезти оставшихся пассажиров
+            long drainEnd = clock.currentTimeMillis() + DRAIN_LIMIT_MS;
+            // на остановившихся виртуальных часах drainEnd не наступит никогда
+            while (clock.currentTimeMillis() < drainEnd && !isDrained(target, elevators)) {
+                if (clock.isStalled()) {
+                    log.log("Часы симуляции остановились, пассажиры не развезены: " +
+                            target.getPendingRequestsCount() + " вызовов ждут");
+                    break;
+                }
+                Thread.sleep(5);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            generator.stop();
+            threads.forEach(Thread::interrupt);
+            for (Thread thread : threads) {
+                try {
+                    thread.join(1500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        return buildReport(options, workload, target, elevators,
+                clock.currentTimeMillis() - simulationStart, realStart);
+    }
+
+    /* источник вызовов: профиль потока или журнал для повтора, и запись поступивших вызовов */
+    private static class Workload {
+        final TrafficProfile traffic;
+        final List<PassengerRequest> trace;
+        final RequestTraceWriter traceWriter;
+
+        Workload(TrafficProfile traffic, List<PassengerRequest> trace, RequestTraceWriter traceWriter) {
+            this.traffic = traffic;
+            this.trace = trace;
+            this.traceWriter = traceWriter;
+        }
+    }
+
+    /* null - прежний поток: фиксированный интервал, равномерные пары этажей */
+    private static TrafficProfile createTrafficProfile(Options options) throws IOException {
+        if (options.trafficFile != null) {
+            return OdMatrixTrafficProfile.load(Path.of(options.trafficFile), options.floors, options.ratePerMinute);
+        }
+        if (options.traffic == null) {
+            return null;
+        }
+        return trafficProfile(options.traffic, options.floors, options.ratePerMinute, options.durationSec * 1000);
+    }
+
+    /* встроенный профиль по имени из parseTraffic */
+    static TrafficProfile trafficProfile(String name, int floors, double ratePerMinute, long periodMs) {
+        return switch (name) {
+            case "up-peak" -> TrafficProfile.upPeak(floors, ratePerMinute, periodMs);
+            case "down-peak" -> TrafficProfile.downPeak(floors, ratePerMinute, periodMs);
+            case "lunch" -> TrafficProfile.lunch(floors, ratePerMinute, periodMs);
+            default -> TrafficProfile.uniform(floors, ratePerMinute);
+        };
+    }
+
+    /* router - маршрутизатор многозонного дома или null; журнал пишет он, а не диспетчеры зон */
+    private static void configure(List<Dispatcher> dispatchers, DispatchRouter router, Options options,
+                                  Workload workload, SimulationClock clock) {
+        for (Dispatcher dispatcher : dispatchers) {
+            dispatcher.setMode(options.dispatch);
+            dispatcher.setBatchWindowMs(options.batchWindowMs);
+        }
+        if (workload.traceWriter != null) {
+            workload.traceWriter.setOrigin(clock.currentTimeMillis());
+            if (router != null) {
+                router.setTraceWriter(workload.traceWriter);
+            } else {
+                dispatchers.get(0).setTraceWriter(workload.traceWriter);
+            }
+        }
+    }
+
+    /* главный поток не участник симуляции, поэтому ждет обычным sleep */
+    private static boolean isDrained(RequestTarget dispatcher, List<Elevator> elevators) {
+        if (dispatcher.getPendingRequestsCount() > 0) {
+            return false;
+        }
+        for (Elevator elevator : elevators) {
+            if (!elevator.isAvailable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String buildReport(Options options, Workload workload, RequestTarget dispatcher,
+                                      List<Elevator> elevators, long simulatedMs, long realStart) {
+        long realMs = (System.nanoTime() - realStart) / 1_000_000;
+
+        int served = 0;
+        int stops = 0;
+        for (Elevator elevator : elevators) {
+            served += elevator.getPassengersServed();
+            stops += elevator.getTotalStops();
+        }
+        double hours = simulatedMs / 3_600_000.0;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("ОТЧЕТ СИМУЛЯЦИИ\n");
+        sb.append(String.format("Режим: %s, часы: %s%n", options.engine,
+                !options.engine.equals("events") ? options.clock : "virtual"));
+        sb.append(String.format("Этажей: %d, лифтов: %d, вместимость: %d, вызовов в минуту: %.1f, seed: %d%n",
+                options.floors, options.elevators, options.capacity, options.ratePerMinute, options.seed));
+        if (options.zones != null) {
+            int[] counts = Zone.elevatorCounts(options.zones, options.elevators);
+            sb.append("Зоны:");
+            for (int z = 0; z < counts.length; z++) {
+                sb.append(String.format(" %s - лифтов %d%s", options.zones.get(z).getName(), counts[z],
+                        z < counts.length - 1 ? "," : "\n"));
+            }
+        }
+        sb.append(String.format("Движение: этаж %.1f м, скорость %.1f м/с, ускорение %.1f м/с2, рывок %.1f м/с3%n",
+                options.floorHeight, options.speed, options.acceleration, options.jerk));
+        if (workload.trace != null) {
+            sb.append(String.format("Поток: повтор журнала %s, вызовов: %d, ускорение: %.1f%n",
+                    options.replayPath, workload.trace.size(), options.replaySpeed));
+        } else if (workload.traffic != null) {
+            sb.append("Поток: ").append(workload.traffic.getName()).append(", пуассоновский\n");
+        } else {
+            sb.append("Поток: фиксированный интервал, равномерные пары этажей\n");
+        }
+        sb.append(switch (options.dispatch) {
+            case BATCH -> String.format("Назначение: пачками, окно %d мс%n", options.batchWindowMs);
+            case DESTINATION -> "Назначение: по этажу назначения\n";
+            default -> "Назначение: по одному\n";
+        });
+        sb.append(String.format("Время симуляции: %.1f сек., реальное время: %.3f сек.%n",
+                simulatedMs / 1000.0, realMs / 1000.0));
+        sb.append(dispatcher.getStatistics()).append("\n");
+        sb.append(dispatcher.getPassengerStatistics()).append("\n");
+        if (dispatcher instanceof DispatchRouter router) {
+            // высадка на пересадке - конец участка, а не поездки
+            sb.append(String.format("Участков поездок: %d, пересадок: %d%n", served, router.getTransfersMade()));
+            served -= router.getTransfersMade();
+        }
+        sb.append(String.format("Перевезено пассажиров: %d, остановок: %d%n", served, stops));
+        sb.append(String.format("Пропускная способность: %.1f пасс./час%n", hours > 0 ? served / hours : 0.0));
+
+        for (Elevator elevator : elevators) {
+            sb.append(String.format("Лифт %d: пассажиров %d, остановок %d, наибольшая загрузка %d/%d, этаж %d%n",
+                    elevator.getId(),
+                    elevator.getPassengersServed(),
+                    elevator.getTotalStops(),
+                    elevator.getSnapshot().getMaxLoad(),
+                    elevator.getCapacity(),
+                    elevator.getCurrentFloor()));
+            sb.append("  ожидание: ").append(elevator.getWaitTimes().getSummary()).append("\n");
+            sb.append("  поездка: ").append(elevator.getRideTimes().getSummary()).append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    /* разбор параметров вида --name=value; null - запрошена справка */
+    static Options parse(String[] args) {
+        Options options = new Options();
+
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                return null;
+            }
+            if (arg.equals("--headless")) {
+                continue;
+            }
+            if (arg.equals("--verbose")) {
+                options.verbose = true;
+                continue;
+            }
+
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("неизвестный параметр " + arg);
+            }
+
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            try {
+                switch (name) {
+                    case "floors" -> options.floors = Integer.parseInt(value);
+                    case "elevators" -> options.elevators = Integer.parseInt(value);
+                    case "capacity" -> options.capacity = Integer.parseInt(value);
+                    case "floor-height" -> options.floorHeight = Double.parseDouble(value);
+                    case "speed" -> options.speed = Double.parseDouble(value);
+                    case "acceleration" -> options.acceleration = Double.parseDouble(value);
+                    case "jerk" -> options.jerk = Double.parseDouble(value);
+                    case "rate" -> options.ratePerMinute = Double.parseDouble(value);
+                    case "duration" -> options.durationSec = Long.parseLong(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "engine" -> options.engine = value;
+                    case "clock" -> options.clock = value;
+                    case "dispatch" -> options.dispatch = parseDispatchMode(value);
+                    case "batch-window" -> options.batchWindowMs = Long.parseLong(value);
+                    case "traffic" -> options.traffic = parseTraffic(value);
+                    case "traffic-file" -> options.trafficFile = value;
+                    case "record" -> options.recordPath = value;
+                    case "replay" -> options.replayPath = value;
+                    case "replay-speed" -> options.replaySpeed = Double.parseDouble(value);
+                    case "report" -> options.reportPath = value;
+                    case "log" -> options.logPath = value;
+                    case "events" -> options.eventsPath = value;
+                    case "zones" -> options.zonesSpec = value;
+                    default -> throw new IllegalArgumentException("неизвестный параметр " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("некорректное число в " + arg);
+            }
+        }
+
+        if (options.floors < 2) {
+            throw new IllegalArgumentException("этажей должно быть не меньше 2");
+        }
+        if (options.elevators < 1) {
+            throw new IllegalArgumentException("нужен хотя бы один лифт");
+        }
+        if (options.capacity < 1) {
+            throw new IllegalArgumentException("вместимость лифта должна быть положительной");
+        }
+        if (options.floorHeight <= 0 || options.speed <= 0 || options.acceleration <= 0 || options.jerk <= 0) {
+            throw new IllegalArgumentException("параметры движения должны быть положительными");
+        }
+        if (options.ratePerMinute <= 0 || options.durationSec <= 0) {
+            throw new IllegalArgumentException("частота вызовов и длительность должны быть положительными");
+        }
+        if (!List.of("events", "threads", "virtual").contains(options.engine)) {
+            throw new IllegalArgumentException("engine: events, threads или virtual");
+        }
+        if (!options.clock.equals("virtual") && !options.clock.equals("real")) {
+            throw new IllegalArgumentException("clock: virtual или real");
+        }
+        if (options.batchWindowMs < 0) {
+            throw new IllegalArgumentException("окно пачки не может быть отрицательным");
+        }
+        if (options.traffic != null && options.trafficFile != null) {
+            throw new IllegalArgumentException("traffic и traffic-file взаимоисключающие");
+        }
+        if (options.replayPath != null && (options.traffic != null || options.trafficFile != null)) {
+            throw new IllegalArgumentException("replay заменяет генератор, traffic с ним не задается");
+        }
+        if (options.replaySpeed <= 0) {
+            throw new IllegalArgumentException("скорость повтора должна быть положительной");
+        }
+        if (options.zonesSpec != null) {
+            try {
+                options.zones = Zone.parse(options.zonesSpec, options.floors);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("некорректные зоны " + options.zonesSpec);
+            }
+            // лифты заданы у каждой зоны - их сумма заменяет --elevators
+            int explicit = Zone.explicitElevators(options.zones);
+            if (explicit > 0) {
+                options.elevators = explicit;
+            }
+            Zone.elevatorCounts(options.zones, options.elevators);
+        }
+
+        return options;
+    }
+
+    static String parseTraffic(String value) {
+        return switch (value) {
+            case "uniform", "up-peak", "down-peak", "lunch" -> value;
+            default -> throw new IllegalArgumentException("traffic: uniform, up-peak, down-peak или lunch");
+        };
+    }
+
+    static DispatchMode parseDispatchMode(String value) {
+        return switch (value) {
+            case "greedy" -> DispatchMode.GREEDY;
+            case "batch" -> DispatchMode.BATCH;
+            case "destination" -> DispatchMode.DESTINATION;
+            default -> throw new IllegalArgumentException("dispatch: greedy, batch или destination");
+        };
+    }
+
+    private static void printUsage() {
+        System.err.println(
+                "Параметры пакетного режима:\n" +
+                        "  --floors=N        количество этажей (по умолчанию 10)\n" +
+                        "  --elevators=M     количество лифтов (3)\n" +
+                        "  --capacity=C      вместимость кабины, человек (10)\n" +
+                        "  --floor-height=H  высота этажа, м (3.5)\n" +
+                        "  --speed=V         максимальная скорость кабины, м/с (2.5)\n" +
+                        "  --acceleration=A  ускорение, м/с2 (1.0)\n" +
+                        "  --jerk=J          рывок, м/с3 (1.5)\n" +
+                        "  --rate=R          вызовов в минуту (20)\n" +
+                        "  --duration=S      длительность генерации, сек. времени симуляции (3600)\n" +
+                        "  --seed=X          seed генератора (1)\n" +
+                        "  --engine=E        events - событийный движок, threads - поток на лифт,\n" +
+                        "                    virtual - то же на виртуальных потоках (events)\n" +
+                        "  --clock=C         для threads: virtual или real (virtual)\n" +
+                        "  --dispatch=D      greedy - по одному, batch - пачками,\n" +
+                        "                    destination - по этажу назначения (greedy)\n" +
+                        "  --batch-window=MS окно сбора пачки, мс (500)\n" +
+                        "  --traffic=T       пуассоновский поток: uniform, up-peak, down-peak, lunch\n" +
+                        "                    (без параметра - вызовы через равные промежутки)\n" +
+                        "  --traffic-file=F  поток по матрице отправление-назначение из файла\n" +
+                        "  --record=FILE     записать поступившие вызовы в двоичный журнал\n" +
+                        "  --replay=FILE     повторить вызовы из журнала (.csv - текстовый)\n" +
+                        "  --replay-speed=X  ускорение повтора (1)\n" +
+                        "  --report=FILE     записать отчет в файл вместо стандартного вывода\n" +
+                        "  --log=FILE        записывать подробный лог в файл\n" +
+                        "  --events=FILE     двоичный журнал событий\n" +
+                        "  --zones=SPEC      зоны со своими диспетчерами: через запятую, этажи\n" +
+                        "                    зоны через +, :N - лифтов зоны (1-20,1+21-40:2)\n" +
+                        "  --verbose         выводить подробный лог"
+        );
+    }
+}
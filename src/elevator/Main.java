@@ -4,10 +4,20 @@ import gui.ElevatorFrame;
 
 public class Main {
     public static void main(String[] args) {
+        // перебор параметров: сетка симуляций параллельно на всех ядрах
+        if (args.length > 0 && args[0].equals("--sweep")) {
+            System.exit(SweepRunner.run(java.util.Arrays.copyOfRange(args, 1, args.length)));
+        }
+
+        // с параметрами командной строки - пакетный режим без GUI
+        if (args.length > 0) {
+            System.exit(HeadlessRunner.run(args));
+        }
+
         javax.swing.SwingUtilities.invokeLater(() -> {
             ElevatorFrame frame = new ElevatorFrame();
             frame.setVisible(true);
             frame.setLocationRelativeTo(null);
         });
     }
-}
\ No newline at end of file
+}
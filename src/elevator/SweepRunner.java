@@ -0,0 +1,315 @@
+package elevator;
+
+import control.DispatchMode;
+import control.Dispatcher;
+import model.Elevator;
+import model.MotionProfile;
+import sim.EventDrivenSimulation;
+import util.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * перебор параметров: декартово произведение диапазонов, каждая точка -
+ * отдельная событийная симуляция со своими часами, шиной событий и
+ * статистикой; точки считаются параллельно пулом на все ядра. пример:
+ *   java elevator.Main --sweep --floors=10,20,50 --elevators=2..8:2 --rate=20,40
+ *                      --dispatch=greedy,destination --seed=1..5
+ */
+public class SweepRunner {
+
+    private SweepRunner() {}
+
+    /* параметры перебора: списки значений по каждому измерению */
+    static class Options {
+        List<Integer> floors = List.of(10);
+        List<Integer> elevators = List.of(3);
+        List<Double> rates = List.of(20.0);
+        List<DispatchMode> dispatch = List.of(DispatchMode.GREEDY);
+        List<Long> seeds = List.of(1L);
+        long durationSec = 3600;
+        int capacity = Elevator.DEFAULT_CAPACITY;
+        String traffic = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String csvPath = null;
+    }
+
+    /* одна точка сетки */
+    private record Point(int floors, int elevators, double rate, DispatchMode dispatch, long seed) {}
+
+    /* итог одной симуляции */
+    private record Result(Point point, int served, double throughput, LatencyHistogram waits, LatencyHistogram rides) {}
+
+    public static int run(String[] args) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка параметров: " + e.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        if (options == null) {
+            printUsage();
+            return 0;
+        }
+
+        List<Point> grid = new ArrayList<>();
+        for (int floors : options.floors) {
+            for (int elevators : options.elevators) {
+                for (double rate : options.rates) {
+                    for (DispatchMode mode : options.dispatch) {
+                        for (long seed : options.seeds) {
+                            grid.add(new Point(floors, elevators, rate, mode, seed));
+                        }
+                    }
+                }
+            }
+        }
+
+        int threads = Math.min(options.threads, grid.size());
+        System.err.printf("Симуляций: %d, потоков: %d%n", grid.size(), threads);
+        long realStart = System.nanoTime();
+
+        List<Result> results = new ArrayList<>(grid.size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(grid.size());
+            for (Point point : grid) {
+                futures.add(pool.submit(() -> simulate(point, options)));
+            }
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (ExecutionException e) {
+            System.err.println("Ошибка симуляции: " + e.getCause());
+            return 1;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.print(buildTable(results));
+        System.err.printf("Реальное время: %.3f сек.%n", (System.nanoTime() - realStart) / 1e9);
+
+        if (options.csvPath != null) {
+            try {
+                Files.write(Path.of(options.csvPath), buildCsv(results), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Не удалось записать таблицу: " + e.getMessage());
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /* симуляция изолирована: часы, шина, лог и статистика - свои у каждого экземпляра */
+    private static Result simulate(Point point, Options options) {
+        long intervalMs = Math.max(1, Math.round(60_000.0 / point.rate()));
+        EventDrivenSimulation simulation = new EventDrivenSimulation(point.floors(), point.elevators(),
+                options.capacity, MotionProfile.DEFAULT, intervalMs, point.seed());
+
+        Dispatcher dispatcher = simulation.getDispatcher();
+        dispatcher.setMode(point.dispatch());
+        if (options.traffic != null) {
+            simulation.getGenerator().setTrafficProfile(HeadlessRunner.trafficProfile(
+                    options.traffic, point.floors(), point.rate(), options.durationSec * 1000));
+        }
+
+        simulation.run(options.durationSec * 1000);
+
+        LatencyHistogram waits = new LatencyHistogram();
+        LatencyHistogram rides = new LatencyHistogram();
+        int served = 0;
+        for (Elevator elevator : simulation.getElevators()) {
+            waits.merge(elevator.getWaitTimes());
+            rides.merge(elevator.getRideTimes());
+            served += elevator.getPassengersServed();
+        }
+
+        double hours = simulation.getClock().currentTimeMillis() / 3_600_000.0;
+        return new Result(point, served, hours > 0 ? served / hours : 0.0, waits, rides);
+    }
+
+    private static String buildTable(List<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%6s %6s %8s %-12s %6s %8s %9s | %27s | %6s%n",
+                "этажей", "лифтов", "выз/мин", "назначение", "seed", "пасс.", "пасс./час",
+                "ожидание ср/p50/p90/p99, с", "поездка ср, с"));
+        for (Result r : results) {
+            Point p = r.point();
+            sb.append(String.format("%6d %6d %8.1f %-12s %6d %8d %9.1f | %6.1f %6.1f %6.1f %6.1f | %6.1f%n",
+                    p.floors(), p.elevators(), p.rate(), p.dispatch().name().toLowerCase(), p.seed(),
+                    r.served(), r.throughput(),
+                    r.waits().getMean() / 1000.0,
+                    r.waits().getValueAtPercentile(50) / 1000.0,
+                    r.waits().getValueAtPercentile(90) / 1000.0,
+                    r.waits().getValueAtPercentile(99) / 1000.0,
+                    r.rides().getMean() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> buildCsv(List<Result> results) {
+        List<String> lines = new ArrayList<>();
+        lines.add("floors;elevators;rate;dispatch;seed;served;throughput_per_hour;"
+                + "wait_mean_s;wait_p50_s;wait_p90_s;wait_p99_s;wait_max_s;ride_mean_s");
+        for (Result r : results) {
+            Point p = r.point();
+            lines.add(String.format(Locale.ROOT, "%d;%d;%.2f;%s;%d;%d;%.2f;%.3f;%.3f;%.3f;%.3f;%.3f;%.3f",
+                    p.floors(), p.elevators(), p.rate(), p.dispatch().name().toLowerCase(), p.seed(),
+                    r.served(), r.throughput(),
+                    r.waits().getMean() / 1000.0,
+                    r.waits().getValueAtPercentile(50) / 1000.0,
+                    r.waits().getValueAtPercentile(90) / 1000.0,
+                    r.waits().getValueAtPercentile(99) / 1000.0,
+                    r.waits().getMax() / 1000.0,
+                    r.rides().getMean() / 1000.0));
+        }
+        return lines;
+    }
+
+    /* разбор параметров вида --name=value; null - запрошена справка */
+    static Options parse(String[] args) {
+        Options options = new Options();
+
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                return null;
+            }
+
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("неизвестный параметр " + arg);
+            }
+
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            try {
+                switch (name) {
+                    case "floors" -> options.floors = intRange(value);
+                    case "elevators" -> options.elevators = intRange(value);
+                    case "rate" -> options.rates = doubleRange(value);
+                    case "dispatch" -> options.dispatch = split(value).stream().map(HeadlessRunner::parseDispatchMode).toList();
+                    case "seed" -> options.seeds = intRange(value).stream().map(Integer::longValue).toList();
+                    case "duration" -> options.durationSec = Long.parseLong(value);
+                    case "capacity" -> options.capacity = Integer.parseInt(value);
+                    case "traffic" -> options.traffic = HeadlessRunner.parseTraffic(value);
+                    case "threads" -> options.threads = Integer.parseInt(value);
+                    case "csv" -> options.csvPath = value;
+                    default -> throw new IllegalArgumentException("неизвестный параметр " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("некорректное число в " + arg);
+            }
+        }
+
+        if (options.floors.stream().anyMatch(f -> f < 2)) {
+            throw new IllegalArgumentException("этажей должно быть не меньше 2");
+        }
+        if (options.elevators.stream().anyMatch(e -> e < 1)) {
+            throw new IllegalArgumentException("нужен хотя бы один лифт");
+        }
+        if (options.rates.stream().anyMatch(r -> r <= 0) || options.durationSec <= 0) {
+            throw new IllegalArgumentException("частота вызовов и длительность должны быть положительными");
+        }
+        if (options.capacity < 1) {
+            throw new IllegalArgumentException("вместимость лифта должна быть положительной");
+        }
+        if (options.threads < 1) {
+            throw new IllegalArgumentException("нужен хотя бы один поток");
+        }
+
+        return options;
+    }
+
+    /* список через запятую; элемент a..b или a..b:шаг разворачивается в диапазон */
+    private static List<Integer> intRange(String value) {
+        List<Integer> values = new ArrayList<>();
+        for (String item : split(value)) {
+            int dots = item.indexOf("..");
+            if (dots < 0) {
+                values.add(Integer.parseInt(item));
+                continue;
+            }
+
+            int colon = item.indexOf(':', dots);
+            int from = Integer.parseInt(item.substring(0, dots));
+            int to = Integer.parseInt(item.substring(dots + 2, colon < 0 ? item.length() : colon));
+            int step = colon < 0 ? 1 : Integer.parseInt(item.substring(colon + 1));
+            if (step <= 0 || to < from) {
+                throw new IllegalArgumentException("некорректный диапазон " + item);
+            }
+            for (int v = from; v <= to; v += step) {
+                values.add(v);
+            }
+        }
+        return values;
+    }
+
+    private static List<Double> doubleRange(String value) {
+        List<Double> values = new ArrayList<>();
+        for (String item : split(value)) {
+            int dots = item.indexOf("..");
+            if (dots < 0) {
+                values.add(Double.parseDouble(item));
+                continue;
+            }
+
+            int colon = item.indexOf(':', dots);
+            double from = Double.parseDouble(item.substring(0, dots));
+            double to = Double.parseDouble(item.substring(dots + 2, colon < 0 ? item.length() : colon));
+            double step = colon < 0 ? 1 : Double.parseDouble(item.substring(colon + 1));
+            if (step <= 0 || to < from) {
+                throw new IllegalArgumentException("некорректный диапазон " + item);
+            }
+            // счетчиком шагов, чтобы не копить погрешность сложения
+            for (int i = 0; from + i * step <= to + 1e-9; i++) {
+                values.add(from + i * step);
+            }
+        }
+        return values;
+    }
+
+    private static List<String> split(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("пустой список значений");
+        }
+        return items;
+    }
+
+    private static void printUsage() {
+        System.err.println(
+                "Параметры перебора (--sweep); списки через запятую, диапазоны a..b или a..b:шаг:\n" +
+                        "  --floors=LIST     количество этажей (10)\n" +
+                        "  --elevators=LIST  количество лифтов (3)\n" +
+                        "  --rate=LIST       вызовов в минуту (20)\n" +
+                        "  --dispatch=LIST   greedy, batch, destination (greedy)\n" +
+                        "  --seed=LIST       seed генератора (1)\n" +
+                        "  --duration=S      длительность генерации, сек. (3600)\n" +
+                        "  --capacity=C      вместимость кабины (10)\n" +
+                        "  --traffic=T       профиль потока: uniform, up-peak, down-peak, lunch\n" +
+                        "  --threads=N       потоков пула (по числу ядер)\n" +
+                        "  --csv=FILE        записать таблицу в CSV"
+        );
+    }
+}
@@ -0,0 +1,68 @@
+package event;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * двоичный журнал событий: записи фиксированной длины
+ * (тип, время, лифт, этаж, пользователь, значение) - 25 байт
+ */
+public class BinaryEventSink implements EventSink, Closeable {
+
+    private final DataOutputStream out;
+
+    public BinaryEventSink(Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    @Override
+    public boolean isEnabled(EventType type) {
+        return true;
+    }
+
+    @Override
+    public synchronized void onEvent(EventType type, long time, int elevatorId, int floor, int userId, int value) {
+        try {
+            out.writeByte(type.ordinal());
+            out.writeLong(time);
+            out.writeInt(elevatorId);
+            out.writeInt(floor);
+            out.writeInt(userId);
+            out.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /* чтение журнала с передачей событий другому получателю */
+    public static void read(Path path, EventSink sink) throws IOException {
+        EventType[] types = EventType.values();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int type;
+                try {
+                    type = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    return;
+                }
+
+                long time = in.readLong();
+                int elevatorId = in.readInt();
+                int floor = in.readInt();
+                int userId = in.readInt();
+                int value = in.readInt();
+
+                if (type < types.length && sink.isEnabled(types[type])) {
+                    sink.onEvent(types[type], time, elevatorId, floor, userId, value);
+                }
+            }
+        }
+    }
+}
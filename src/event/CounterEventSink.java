@@ -0,0 +1,31 @@
+package event;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* счетчики событий в памяти */
+public class CounterEventSink implements EventSink {
+
+    private final AtomicLongArray counts = new AtomicLongArray(EventType.values().length);
+
+    @Override
+    public boolean isEnabled(EventType type) {
+        return true;
+    }
+
+    @Override
+    public void onEvent(EventType type, long time, int elevatorId, int floor, int userId, int value) {
+        counts.incrementAndGet(type.ordinal());
+    }
+
+    public long getCount(EventType type) {
+        return counts.get(type.ordinal());
+    }
+
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder("События:\n");
+        for (EventType type : EventType.values()) {
+            sb.append("  ").append(type).append(": ").append(getCount(type)).append("\n");
+        }
+        return sb.toString();
+    }
+}
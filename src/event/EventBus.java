@@ -0,0 +1,77 @@
+package event;
+
+import util.GuiLogger;
+import util.SimulationClock;
+
+import java.util.Arrays;
+
+/*
+ * шина событий симуляции. emit принимает только примитивы, поэтому
+ * при отсутствии заинтересованных получателей событие ничего не стоит:
+ * одна проверка маски без выделения памяти.
+ * шина - общий контекст одной симуляции: через нее лифты, диспетчер
+ * и генератор получают часы и текстовый лог этой симуляции
+ */
+public class EventBus {
+
+    private final SimulationClock clock;
+    private final GuiLogger log;
+    private volatile EventSink[] sinks = new EventSink[0];
+    private volatile int enabledMask = 0;
+
+    /* симуляция без текстового лога */
+    public EventBus(SimulationClock clock) {
+        this(clock, new GuiLogger(clock));
+    }
+
+    public EventBus(SimulationClock clock, GuiLogger log) {
+        this.clock = clock;
+        this.log = log;
+    }
+
+    public GuiLogger getLog() {
+        return log;
+    }
+
+    public synchronized void addSink(EventSink sink) {
+        EventSink[] updated = Arrays.copyOf(sinks, sinks.length + 1);
+        updated[sinks.length] = sink;
+        sinks = updated;
+        recalculateMask();
+    }
+
+    public synchronized void removeSink(EventSink sink) {
+        sinks = Arrays.stream(sinks).filter(s -> s != sink).toArray(EventSink[]::new);
+        recalculateMask();
+    }
+
+    public boolean isEnabled(EventType type) {
+        return (enabledMask & (1 << type.ordinal())) != 0;
+    }
+
+    public void emit(EventType type, int elevatorId, int floor, int userId, int value) {
+        if (!isEnabled(type)) {
+            return;
+        }
+
+        long time = clock.currentTimeMillis();
+        for (EventSink sink : sinks) {
+            if (sink.isEnabled(type)) {
+                sink.onEvent(type, time, elevatorId, floor, userId, value);
+            }
+        }
+    }
+
+    private void recalculateMask() {
+        int mask = 0;
+        for (EventType type : EventType.values()) {
+            for (EventSink sink : sinks) {
+                if (sink.isEnabled(type)) {
+                    mask |= 1 << type.ordinal();
+                    break;
+                }
+            }
+        }
+        enabledMask = mask;
+    }
+}
@@ -0,0 +1,10 @@
+package event;
+
+/* получатель событий; форматирование и хранение - забота получателя */
+public interface EventSink {
+
+    /* проверяется при подключении к шине: отключенные типы до получателя не доходят */
+    boolean isEnabled(EventType type);
+
+    void onEvent(EventType type, long time, int elevatorId, int floor, int userId, int value);
+}
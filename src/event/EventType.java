@@ -0,0 +1,18 @@
+package event;
+
+/*
+ * типы событий симуляции. у всех событий одинаковый набор примитивных полей
+ * (лифт, этаж, пользователь, значение), смысл значения зависит от типа
+ */
+public enum EventType {
+    CALL_RECEIVED,      // пользователь, этаж вызова, значение - целевой этаж << 1 | 1, если вызов вверх
+    ASSIGNED,           // пользователь, лифт, этаж вызова, значение - оценка ожидания в мс
+    DEPARTED,           // лифт, этаж отправления, значение - цель перегона
+    ARRIVED,            // лифт, этаж прибытия
+    DOORS_OPENED,       // лифт, этаж
+    DOORS_CLOSED,       // лифт, этаж
+    PASSENGER_BOARDED,  // лифт, этаж, пользователь, значение - время ожидания в мс
+    PASSENGER_ALIGHTED, // лифт, этаж, пользователь, значение - время поездки в мс
+    CALL_REFUSED,       // лифт, этаж вызова, значение - направление лифта (Direction.ordinal()) << 1 | 1, если вызов вверх
+    CALL_PARKED         // пользователь, этаж вызова, значение - 1, если вызов вверх; ни один лифт не взял, вызов отложен
+}
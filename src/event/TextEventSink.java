@@ -0,0 +1,53 @@
+package event;
+
+import model.Direction;
+import util.GuiLogger;
+
+/* текстовый лог событий в прежнем формате сообщений */
+public class TextEventSink implements EventSink {
+
+    private final GuiLogger log;
+
+    public TextEventSink(GuiLogger log) {
+        this.log = log;
+    }
+
+    @Override
+    public boolean isEnabled(EventType type) {
+        return true;
+    }
+
+    @Override
+    public void onEvent(EventType type, long time, int elevatorId, int floor, int userId, int value) {
+        log.log(format(type, elevatorId, floor, userId, value));
+    }
+
+    static String format(EventType type, int elevatorId, int floor, int userId, int value) {
+        return switch (type) {
+            case CALL_RECEIVED -> "Поступил запрос: пользователь " + userId +
+                    ", этаж " + floor +
+                    " (направление: " + callDirection(value) + ")" +
+                    " → цель " + (value >>> 1);
+            case ASSIGNED -> String.format(
+                    "Пользователь %d: назначен лифт %d (этаж вызова %d, примерное время ожидания: %.1f сек.)",
+                    userId, elevatorId, floor, value / 1000.0);
+            case DEPARTED -> "Лифт " + elevatorId + ": движение с этажа " + floor + " на этаж " + value;
+            case ARRIVED -> "Лифт " + elevatorId + " прибыл на целевой этаж " + floor;
+            case DOORS_OPENED -> "Лифт " + elevatorId + " двери открыты на этаже " + floor;
+            case DOORS_CLOSED -> "Лифт " + elevatorId + " двери закрыты (в кабине " + value + ")";
+            case PASSENGER_BOARDED -> String.format("Лифт %d: пассажир %d вошел на этаже %d (ожидание %.1f сек.)",
+                    elevatorId, userId, floor, value / 1000.0);
+            case PASSENGER_ALIGHTED -> String.format("Лифт %d: пассажир %d вышел на этаже %d (поездка %.1f сек.)",
+                    elevatorId, userId, floor, value / 1000.0);
+            case CALL_REFUSED -> "Лифт " + elevatorId + ": отклонен вызов с этажа " + floor +
+                    " (направление: " + callDirection(value) +
+                    ", текущее направление: " + Direction.values()[value >>> 1] + ")";
+            case CALL_PARKED -> "Пользователь " + userId + ": ВСЕ ЛИФТЫ ЗАНЯТЫ, запрос отложен";
+        };
+    }
+
+    /* младший бит значения - вызов вверх */
+    private static Direction callDirection(int value) {
+        return (value & 1) != 0 ? Direction.UP : Direction.DOWN;
+    }
+}
@@ -2,9 +2,16 @@ package gui;
 
 import control.Dispatcher;
 import control.PassengerGenerator;
+import event.EventBus;
+import event.TextEventSink;
 import model.Elevator;
+import model.ElevatorSnapshot;
 import model.Direction;
+import util.ExecutionMode;
 import util.GuiLogger;
+import util.RealTimeClock;
+import util.SimulationClock;
+import util.VirtualClock;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
@@ -20,12 +27,16 @@ public class ElevatorFrame extends JFrame {
     private List<Thread> elevatorThreads = new ArrayList<>();
     private Thread dispatcherThread;
     private PassengerGenerator passengerGenerator;
+    // лог окна: запуски системы пишут в одну текстовую область; в сериализуемое состояние окна не входит
+    private final transient GuiLogger log = new GuiLogger();
 
     // GUI компоненты
     private JButton autoButton;
     private JTextField intervalField;
     private JTextField floorsField;
     private JTextField elevatorsField;
+    private JComboBox<String> clockModeBox;
+    private JComboBox<String> threadModeBox;
     private JButton startButton;
     private JButton stopButton;
     private JButton callButton;
@@ -64,11 +75,13 @@ public class ElevatorFrame extends JFrame {
 
         JTextArea logArea = new JTextArea();
         logArea.setEditable(false);
-        util.GuiLogger.init(logArea);
+        log.init(logArea);
 
         // инициализация компонентов
         floorsField = new JTextField(4);
         elevatorsField = new JTextField(4);
+        clockModeBox = new JComboBox<>(new String[]{"Реальное время", "Виртуальное время"});
+        threadModeBox = new JComboBox<>(new String[]{"Потоки ОС", "Виртуальные потоки"});
         startButton = new JButton("Запуск системы");
         stopButton = new JButton("Остановить");
         stopButton.setEnabled(false);
@@ -89,6 +102,8 @@ public class ElevatorFrame extends JFrame {
         setupPanel.add(floorsField);
         setupPanel.add(new JLabel("Лифтов (M):"));
         setupPanel.add(elevatorsField);
+        setupPanel.add(clockModeBox);
+        setupPanel.add(threadModeBox);
         setupPanel.add(startButton);
         setupPanel.add(stopButton);
         setupPanel.add(new JLabel("Интервал (мс):"));
@@ -182,20 +197,34 @@ public class ElevatorFrame extends JFrame {
                 // создаем панели для указанного количества лифтов
                 createElevatorPanels(elevatorsCount);
 
-                // запуск лифтов
+                // часы симуляции: реальное время или ускоренное виртуальное
+                SimulationClock clock = clockModeBox.getSelectedIndex() == 1
+                        ? new VirtualClock()
+                        : new RealTimeClock();
+                log.setClock(clock);
+
+                // лифты, диспетчер и генератор - на потоках ОС или на виртуальных
+                ExecutionMode execution = threadModeBox.getSelectedIndex() == 1
+                        ? ExecutionMode.VIRTUAL
+                        : ExecutionMode.PLATFORM;
+
+                EventBus events = new EventBus(clock, log);
+                events.addSink(new TextEventSink(log));
+
                 for (int i = 0; i < elevatorsCount; i++) {
-                    Elevator elevator = new Elevator(i + 1, 1, floors);
-                    elevatorsList.add(elevator);
-                    Thread elevatorThread = new Thread(elevator, "Elevator-" + (i + 1));
-                    elevatorThreads.add(elevatorThread);
-                    elevatorThread.start();
+                    elevatorsList.add(new Elevator(i + 1, 1, floors, clock, events));
                 }
-
-                // запуск диспетчера и генератора
-                dispatcher = new Dispatcher(elevatorsList, floors);
-                passengerGenerator = new PassengerGenerator(dispatcher, floors);
-                dispatcherThread = new Thread(dispatcher, "Dispatcher");
-                dispatcherThread.start();
+                dispatcher = new Dispatcher(elevatorsList, floors, clock, events);
+                passengerGenerator = new PassengerGenerator(dispatcher, floors, clock);
+                passengerGenerator.setExecutionMode(execution);
+
+                // запуск лифтов и диспетчера; на это время часы держит поток интерфейса
+                clock.register();
+                for (Elevator elevator : elevatorsList) {
+                    elevatorThreads.add(execution.startParticipant("Elevator-" + elevator.getId(), clock, elevator));
+                }
+                dispatcherThread = execution.startParticipant("Dispatcher", clock, dispatcher);
+                clock.unregister();
 
                 // активация элементов управления
                 callButton.setEnabled(true);
@@ -204,14 +233,16 @@ public class ElevatorFrame extends JFrame {
                 stopButton.setEnabled(true);
                 floorsField.setEnabled(false);
                 elevatorsField.setEnabled(false);
+                clockModeBox.setEnabled(false);
+                threadModeBox.setEnabled(false);
 
                 // запуск таймеров обновления
                 startStatusTimer();
                 startStatisticsTimer();
 
-                GuiLogger.log("СИСТЕМА УПРАВЛЕНИЯ ЛИФТАМИ ЗАПУЩЕНА");
-                GuiLogger.log("Дом: " + floors + " этажей");
-                GuiLogger.log("Лифтов: " + elevatorsCount);
+                log.log("СИСТЕМА УПРАВЛЕНИЯ ЛИФТАМИ ЗАПУЩЕНА");
+                log.log("Дом: " + floors + " этажей");
+                log.log("Лифтов: " + elevatorsCount);
 
 
             } catch (NumberFormatException ex) {
@@ -259,8 +290,8 @@ public class ElevatorFrame extends JFrame {
                     autoButton.setText("Автогенерация ВЫКЛ");
                     autoButton.setBackground(new Color(255, 200, 200));
                     intervalField.setEnabled(false);
-                    GuiLogger.log(" АВТОГЕНЕРАЦИЯ ЗАПУЩЕНА ");
-                    GuiLogger.log("Интервал генерации: " + interval + " мс");
+                    log.log(" АВТОГЕНЕРАЦИЯ ЗАПУЩЕНА ");
+                    log.log("Интервал генерации: " + interval + " мс");
 
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(this,
@@ -273,7 +304,7 @@ public class ElevatorFrame extends JFrame {
                 autoButton.setText("Автогенерация ВКЛ");
                 autoButton.setBackground(null);
                 intervalField.setEnabled(true);
-                GuiLogger.log(" АВТОГЕНЕРАЦИЯ ОСТАНОВЛЕНА ");
+                log.log(" АВТОГЕНЕРАЦИЯ ОСТАНОВЛЕНА ");
             }
         });
 
@@ -287,7 +318,7 @@ public class ElevatorFrame extends JFrame {
             if (result == JOptionPane.YES_OPTION) {
                 stopAllThreads();
                 resetUI();
-                GuiLogger.log(" СИСТЕМА ОСТАНОВЛЕНА ");
+                log.log(" СИСТЕМА ОСТАНОВЛЕНА ");
             }
         });
 
@@ -348,7 +379,7 @@ public class ElevatorFrame extends JFrame {
                     fromField.setText("");
                     toField.setText("");
 
-                    GuiLogger.log("РУЧНОЙ ВЫЗОВ: Пользователь " + (userCounter-1) +
+                    log.log("РУЧНОЙ ВЫЗОВ: Пользователь " + (userCounter-1) +
                             " вызывает лифт с этажа " + from + " на этаж " + to);
                 }
 
@@ -466,21 +497,31 @@ public class ElevatorFrame extends JFrame {
                         for (int i = 0; i < elevatorsList.size(); i++) {
                             if (i < statsAreas.size()) {
                                 Elevator elevator = elevatorsList.get(i);
+                                ElevatorSnapshot state = elevator.getSnapshot();
                                 statsAreas.get(i).setText(String.format(
                                         "Лифт %d:\n" +
                                                 "Пассажиров: %d\n" +
                                                 "Остановок: %d\n" +
                                                 "Целей: %d\n" +
+                                                "В кабине: %d/%d\n" +
                                                 "Этаж: %d\n" +
                                                 "Направление: %s\n" +
-                                                "Статус: %s",
-                                        elevator.getId(),
-                                        elevator.getPassengersServed(),
-                                        elevator.getTotalStops(),
-                                        elevator.getTargetsCount(),
-                                        elevator.getCurrentFloor(),
-                                        elevator.getDirection(),
-                                        elevator.getStatus()
+                                                "Статус: %s\n" +
+                                                "Ожидание p50/p90: %.1f/%.1f с\n" +
+                                                "Поездка p50/p90: %.1f/%.1f с",
+                                        state.getId(),
+                                        state.getPassengersServed(),
+                                        state.getTotalStops(),
+                                        state.getTargetsCount(),
+                                        state.getLoad(),
+                                        state.getCapacity(),
+                                        state.getCurrentFloor(),
+                                        state.getDirection(),
+                                        state.getStatus(),
+                                        elevator.getWaitTimes().getValueAtPercentile(50) / 1000.0,
+                                        elevator.getWaitTimes().getValueAtPercentile(90) / 1000.0,
+                                        elevator.getRideTimes().getValueAtPercentile(50) / 1000.0,
+                                        elevator.getRideTimes().getValueAtPercentile(90) / 1000.0
                                 ));
                             }
                         }
@@ -516,6 +557,8 @@ public class ElevatorFrame extends JFrame {
         autoButton.setBackground(null);
         floorsField.setEnabled(true);
         elevatorsField.setEnabled(true);
+        clockModeBox.setEnabled(true);
+        threadModeBox.setEnabled(true);
         intervalField.setEnabled(true);
 
         // показываем финальную статистику в панелях статуса
@@ -598,7 +641,7 @@ public class ElevatorFrame extends JFrame {
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            GuiLogger.log("Прервано ожидание завершения потоков");
+            log.log("Прервано ожидание завершения потоков");
         }
 
         elevatorThreads.clear();
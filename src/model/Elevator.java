@@ -1,71 +1,202 @@
 package model;
 
+import event.EventBus;
+import event.EventType;
 import util.GuiLogger;
+import util.LatencyHistogram;
+import util.SimulationClock;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Elevator implements Runnable {
 
+    // временные параметры стоянки (мс времени симуляции); время перегонов задает MotionProfile
+    public static final long DOOR_OPEN_MS = 1000;
+    // стоянка удлиняется на каждого входящего и выходящего
+    public static final long PASSENGER_TRANSFER_MS = 500;
+
+    public static final int DEFAULT_CAPACITY = 10;
+
+    /* результат step(): лифту нечего делать */
+    public static final long IDLE = -1;
+
+    private static final int[] NO_CALLS = new int[0];
+
     private final int id;
     private int currentFloor;
     private final int maxFloor;
+    private final int capacity;
 
     private Direction direction = Direction.IDLE;
     private ElevatorStatus status = ElevatorStatus.STOPPED;
 
-    //разделение целей по направлениям для эффективной маршрутизации
-    private final Set<Integer> internalTargets = new HashSet<>();
-    private final Set<Integer> externalUpTargets = new HashSet<>();
-    private final Set<Integer> externalDownTargets = new HashSet<>();
-
-    private final BlockingQueue<Integer> executionQueue = new LinkedBlockingQueue<>();
+    /*
+     * разделение целей по направлениям для эффективной маршрутизации.
+     * битовые множества и есть маршрут в порядке LOOK: следующая остановка
+     * вычисляется поиском ближайшего бита, отдельная очередь не нужна
+     */
+    private final FloorSet internalTargets;
+    private final FloorSet externalUpTargets;
+    private final FloorSet externalDownTargets;
+
+    /*
+     * перегон считается целиком: время прибытия известно при отправлении.
+     * в пути currentFloor - последний этаж, где кабина уже не успевает затормозить
+     */
+    private final MotionProfile motion;
+    private final long[] legTimes;    // время перегона по числу этажей
+    private final long[] brakeStarts; // начало торможения от старта перегона по числу этажей
+    private int legStartFloor;
+    private long legStartTime;
+    private int legTarget;
+
+    // момент следующего шага автомата: прибытие или закрытие дверей
+    private long nextStepTime = 0;
+    // будит поток лифта, если перегон перепланирован или появилась первая цель
+    private final SimulationClock.Signal wakeup;
+
+    private final List<ElevatorListener> listeners = new CopyOnWriteArrayList<>();
+    // вышедшие на последней остановке - для уведомления после шага; только поток шагов лифта
+    private final List<PassengerRequest> alightedAtStop = new ArrayList<>();
+
+    // пассажиры: ожидающие на этаже вызова и едущие, по этажу назначения
+    private final List<PassengerRequest>[] waitingByFloor;
+    private final List<PassengerRequest>[] ridingByFloor;
+
+    // этажи назначения назначенных, но еще не севших пассажиров (для оценки маршрута)
+    private final FloorSet plannedDropoffs;
+    private final int[] plannedDropoffCounts;
+
+    // пассажиров в кабине сейчас и наибольшая загрузка за работу
+    private int load = 0;
+    private int maxLoad = 0;
 
     // общая статистика
     private int passengersServed = 0;
     private int totalStops = 0;
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram rideTimes = new LatencyHistogram();
+
+    private final SimulationClock clock;
+    private final EventBus events;
+    private final GuiLogger log;
+
+    // последний опубликованный снимок состояния для читателей без монитора
+    private volatile ElevatorSnapshot snapshot;
+    // счетчик изменений целей, вызовов и ожидающих: пока он прежний, снимок берет массивы
+    // целей предыдущего (они не меняются) - шаг в пути их не трогает
+    private int routeVersion = 0;
+    private int publishedVersion = -1;
+    private int[] publishedTargets;
+    private int[] publishedPlannedStops;
+    private int[] publishedJoinableCalls;
+
+    public Elevator(int id, int startFloor, int maxFloor, SimulationClock clock, EventBus events) {
+        this(id, startFloor, maxFloor, DEFAULT_CAPACITY, clock, events);
+    }
 
-    public Elevator(int id, int startFloor, int maxFloor) {
+    public Elevator(int id, int startFloor, int maxFloor, int capacity, SimulationClock clock, EventBus events) {
+        this(id, startFloor, maxFloor, capacity, MotionProfile.DEFAULT, clock, events);
+    }
+
+    public Elevator(int id, int startFloor, int maxFloor, int capacity, MotionProfile motion,
+                    SimulationClock clock, EventBus events) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Вместимость лифта должна быть положительной");
+        }
         this.id = id;
         this.currentFloor = startFloor;
+        this.legStartFloor = startFloor;
+        this.legTarget = startFloor;
         this.maxFloor = maxFloor;
+        this.capacity = capacity;
+        this.motion = motion;
+        this.legTimes = motion.travelTimes(maxFloor);
+        this.brakeStarts = motion.brakeStarts(maxFloor);
+        this.clock = clock;
+        this.wakeup = clock.newSignal();
+        this.events = events;
+        this.log = events.getLog();
+        this.internalTargets = new FloorSet(maxFloor);
+        this.externalUpTargets = new FloorSet(maxFloor);
+        this.externalDownTargets = new FloorSet(maxFloor);
+        this.waitingByFloor = newFloorLists(maxFloor);
+        this.ridingByFloor = newFloorLists(maxFloor);
+        this.plannedDropoffs = new FloorSet(maxFloor);
+        this.plannedDropoffCounts = new int[maxFloor + 1];
+        publishSnapshot();
+    }
+
+    // массив обобщенного типа создается только через сырой List[]; массив, а не список списков -
+    // пассажиры этажа берутся по индексу на каждой остановке
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<PassengerRequest>[] newFloorLists(int maxFloor) {
+        return (List<PassengerRequest>[]) new List[maxFloor + 1];
     }
 
     public int getId() {
         return id;
     }
 
-    public synchronized int getCurrentFloor() {
-        return currentFloor;
+    /* согласованное состояние лифта одним чтением */
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getCurrentFloor() {
+        return snapshot.getCurrentFloor();
+    }
+
+    public Direction getDirection() {
+        return snapshot.getDirection();
+    }
+
+    public ElevatorStatus getStatus() {
+        return snapshot.getStatus();
+    }
+
+    public int getTargetsCount() {
+        return snapshot.getTargetsCount();
+    }
+
+    public int getPassengersServed() {
+        return snapshot.getPassengersServed();
+    }
+
+    public int getTotalStops() {
+        return snapshot.getTotalStops();
+    }
+
+    public int getLoad() {
+        return snapshot.getLoad();
     }
 
-    public synchronized Direction getDirection() {
-        return direction;
+    public int getCapacity() {
+        return capacity;
     }
 
-    public synchronized ElevatorStatus getStatus() {
-        return status;
+    public MotionProfile getMotion() {
+        return motion;
     }
 
-    public synchronized int getTargetsCount() {
-        return internalTargets.size() + externalUpTargets.size() + externalDownTargets.size();
+    /* момент следующего шага: прибытие в конец перегона или закрытие дверей */
+    public synchronized long getNextStepTime() {
+        return nextStepTime;
     }
 
-    public synchronized int getPassengersServed() {
-        return passengersServed;
+    /* время от вызова до посадки */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
     }
 
-    public synchronized int getTotalStops() {
-        return totalStops;
+    /* время от посадки до выхода */
+    public LatencyHistogram getRideTimes() {
+        return rideTimes;
     }
 
     /* логика доступности лифта: доступен только если стоит и двери закрыты */
-    public synchronized boolean isAvailable() {
-        return status == ElevatorStatus.STOPPED &&
-                internalTargets.isEmpty() &&
-                externalUpTargets.isEmpty() &&
-                externalDownTargets.isEmpty();
+    public boolean isAvailable() {
+        return snapshot.isAvailable();
     }
 
     /*проверка направления */
@@ -82,370 +213,671 @@ public class Elevator implements Runnable {
     }
 
     private boolean isOnTheWayUp(int floor) {
-        return internalTargets.stream().anyMatch(f -> f >= currentFloor && f <= floor) ||
-                externalUpTargets.stream().anyMatch(f -> f >= currentFloor && f <= floor);
+        return internalTargets.anyInRange(currentFloor, floor) ||
+                externalUpTargets.anyInRange(currentFloor, floor);
     }
 
     private boolean isOnTheWayDown(int floor) {
-        return internalTargets.stream().anyMatch(f -> f <= currentFloor && f >= floor) ||
-                externalDownTargets.stream().anyMatch(f -> f <= currentFloor && f >= floor);
+        return internalTargets.anyInRange(floor, currentFloor) ||
+                externalDownTargets.anyInRange(floor, currentFloor);
     }
 
 
-    public synchronized int getFurthestTargetInCurrentDirection() {
-        if (direction == Direction.UP) {
-            Optional<Integer> maxInternal = internalTargets.stream().max(Integer::compareTo);
-            Optional<Integer> maxExternal = externalUpTargets.stream().max(Integer::compareTo);
+    public int getFurthestTargetInCurrentDirection() {
+        return snapshot.getFurthestTargetInCurrentDirection();
+    }
 
-            int max = Math.max(
-                    maxInternal.orElse(currentFloor),
-                    maxExternal.orElse(currentFloor)
-            );
+    private int furthestTargetInCurrentDirection() {
+        if (direction == Direction.UP) {
+            // last() пустого множества -1, поэтому не влияет на максимум
+            int max = Math.max(internalTargets.last(), externalUpTargets.last());
             return Math.max(max, currentFloor);
 
         } else if (direction == Direction.DOWN) {
-            Optional<Integer> minInternal = internalTargets.stream().min(Integer::compareTo);
-            Optional<Integer> minExternal = externalDownTargets.stream().min(Integer::compareTo);
-
-            int min = Math.min(
-                    minInternal.orElse(currentFloor),
-                    minExternal.orElse(currentFloor)
-            );
+            int min = Math.min(lowestOr(internalTargets, currentFloor), lowestOr(externalDownTargets, currentFloor));
             return Math.min(min, currentFloor);
         }
         return currentFloor;
     }
 
-    /* получение всех целей для отображения статуса */
-    public synchronized List<Integer> getAllTargets() {
-        List<Integer> all = new ArrayList<>(internalTargets);
-        all.addAll(externalUpTargets);
-        all.addAll(externalDownTargets);
-        return all;
+    private static int lowestOr(FloorSet floors, int fallback) {
+        int first = floors.first();
+        return first < 0 ? fallback : first;
     }
 
-    /* добавление цели из кабины  */
-    public void addTarget(int floor) {
-        synchronized (this) {
-            if (floor < 1 || floor > maxFloor) {
-                GuiLogger.log("Лифт " + id + ": игнорирую некорректный этаж " + floor);
-                return;
+    /* получение всех целей для отображения статуса, по возрастанию */
+    public List<Integer> getAllTargets() {
+        return snapshot.getTargets();
+    }
+
+    /* вызывается под монитором после каждого изменения состояния */
+    private void publishSnapshot() {
+        int count = internalTargets.size() + externalUpTargets.size() + externalDownTargets.size();
+        if (publishedVersion != routeVersion) {
+            publishedVersion = routeVersion;
+            publishTargets(count);
+        }
+
+        snapshot = new ElevatorSnapshot(id, currentFloor, direction, status, count,
+                furthestTargetInCurrentDirection(), publishedTargets, publishedPlannedStops, publishedJoinableCalls,
+                load, capacity, maxLoad, passengersServed, totalStops,
+                legStartFloor, legStartTime, legTarget, nextStepTime, motion, legTimes, brakeStarts);
+    }
+
+    private void publishTargets(int count) {
+        int[] targets = new int[count];
+        int n = 0;
+        for (int floor = nextTarget(1); floor >= 0; floor = nextTarget(floor + 1)) {
+            targets[n++] = floor;
+        }
+        targets = Arrays.copyOf(targets, n);
+
+        int[] plannedStops = targets;
+        if (!plannedDropoffs.isEmpty()) {
+            plannedStops = new int[n + plannedDropoffs.size()];
+            int m = 0;
+            for (int floor = nextPlannedStop(1); floor >= 0; floor = nextPlannedStop(floor + 1)) {
+                plannedStops[m++] = floor;
             }
+            plannedStops = Arrays.copyOf(plannedStops, m);
+        }
 
-            if (floor == currentFloor) {
-                GuiLogger.log("Лифт " + id + ": уже на этаже " + floor);
-                return;
+        publishedTargets = targets;
+        publishedPlannedStops = plannedStops;
+        publishedJoinableCalls = joinableCalls();
+    }
+
+    /* принятые вызовы, к которым еще присоединится пассажир (ожидающих меньше вместимости), по возрастанию ключа */
+    private int[] joinableCalls() {
+        if (externalUpTargets.isEmpty() && externalDownTargets.isEmpty()) {
+            return NO_CALLS;
+        }
+        int[] calls = new int[externalUpTargets.size() + externalDownTargets.size()];
+        int n = 0;
+        for (int floor = externalUpTargets.first(); floor >= 0; floor = externalUpTargets.nextSetBit(floor + 1)) {
+            if (countWaiting(floor, Direction.UP) < capacity) {
+                calls[n++] = ElevatorSnapshot.callKey(floor, Direction.UP);
+            }
+        }
+        for (int floor = externalDownTargets.first(); floor >= 0; floor = externalDownTargets.nextSetBit(floor + 1)) {
+            if (countWaiting(floor, Direction.DOWN) < capacity) {
+                calls[n++] = ElevatorSnapshot.callKey(floor, Direction.DOWN);
             }
+        }
+        calls = Arrays.copyOf(calls, n);
+        Arrays.sort(calls);
+        return calls;
+    }
 
-            if (!internalTargets.contains(floor)) {
-                internalTargets.add(floor);
-                GuiLogger.log("Лифт " + id + ": добавлена внутренняя цель - этаж " + floor);
-                rebuildExecutionQueue();
+    /* ближайшая цель или этаж назначения ожидающего пассажира на этаже >= from, или -1 */
+    private int nextPlannedStop(int from) {
+        int target = nextTarget(from);
+        int dropoff = plannedDropoffs.nextSetBit(from);
+        if (target < 0 || (dropoff >= 0 && dropoff < target)) {
+            return dropoff;
+        }
+        return target;
+    }
+
+    /* ближайшая цель любого вида на этаже >= from, или -1 */
+    private int nextTarget(int from) {
+        int next = internalTargets.nextSetBit(from);
+        int up = externalUpTargets.nextSetBit(from);
+        int down = externalDownTargets.nextSetBit(from);
+        if (next < 0 || (up >= 0 && up < next)) {
+            next = up;
+        }
+        if (next < 0 || (down >= 0 && down < next)) {
+            next = down;
+        }
+        return next;
+    }
+
+    /* добавление цели из кабины  */
+    public void addTarget(int floor) {
+        boolean added;
+        synchronized (this) {
+            added = addInternalTarget(floor);
+            if (added) {
+                publishSnapshot();
+                wakeIfIdle();
             }
         }
+
+        if (added) {
+            notifyTargetAdded();
+        }
     }
 
     /* добавление внешней цели для лифта (вызов с этажа) с учетом направления */
-    public void addExternalTarget(int floor, Direction requestedDirection) {
+    public boolean addExternalTarget(int floor, Direction requestedDirection) {
+        boolean accepted;
         synchronized (this) {
-            if (floor < 1 || floor > maxFloor) {
-                GuiLogger.log("Лифт " + id + ": игнорирую некорректный вызов на этаж " + floor);
-                return;
+            accepted = acceptExternalTarget(floor, requestedDirection);
+            if (accepted) {
+                publishSnapshot();
+                wakeIfIdle();
             }
+        }
 
-            if (floor == currentFloor && status == ElevatorStatus.STOPPED) {
-                GuiLogger.log("Лифт " + id + ": уже на месте вызова " + floor);
-                return;
+        if (accepted) {
+            notifyTargetAdded();
+        }
+        return accepted;
+    }
+
+    /*
+     * назначение пассажира: вызов с его этажа; цель в кабине добавляется при посадке.
+     * false - вызов не вписывается в маршрут лифта
+     */
+    public boolean assignPassenger(PassengerRequest request) {
+        synchronized (this) {
+            // этаж назначения проверяется до приема вызова: по нему индексируются счетчики высадки
+            if (request.getToFloor() < 1 || request.getToFloor() > maxFloor) {
+                log.log("Лифт " + id + ": игнорирую некорректный этаж назначения " + request.getToFloor()
+                        + " в запросе " + request.getUserId());
+                return false;
             }
+            if (!acceptExternalTarget(request.getFromFloor(), request.getRequestedDirection())) {
+                return false;
+            }
+            floorList(waitingByFloor, request.getFromFloor()).add(request);
+            if (plannedDropoffCounts[request.getToFloor()]++ == 0) {
+                plannedDropoffs.add(request.getToFloor());
+            }
+            routeVersion++;
+            publishSnapshot();
+            wakeIfIdle();
+        }
 
-            // принимаем вызов только если он вписывается в маршрут
-            boolean shouldAccept = false;
+        notifyTargetAdded();
+        return true;
+    }
 
-            if (direction == Direction.IDLE) {
-                shouldAccept = true; // свободный лифт принимает любой вызов
-            }
-            else if (direction == Direction.UP && requestedDirection == Direction.UP && floor >= currentFloor) {
-                shouldAccept = true; //  вверх и вызов сверху по пути
+    private boolean addInternalTarget(int floor) {
+        updatePosition();
+        if (floor < 1 || floor > maxFloor) {
+            log.log("Лифт " + id + ": игнорирую некорректный этаж " + floor);
+            return false;
+        }
+
+        if (floor == currentFloor) {
+            log.log("Лифт " + id + ": уже на этаже " + floor);
+            return false;
+        }
+
+        if (!internalTargets.add(floor)) {
+            return false;
+        }
+        routeVersion++;
+
+        replanLeg();
+        refreshDirection();
+        return true;
+    }
+
+    private boolean acceptExternalTarget(int floor, Direction requestedDirection) {
+        updatePosition();
+        if (floor < 1 || floor > maxFloor) {
+            log.log("Лифт " + id + ": игнорирую некорректный вызов на этаж " + floor);
+            return false;
+        }
+
+        // этот вызов лифт уже принял и еще не обслужил - следующий пассажир присоединяется к нему,
+        // куда бы лифт ни ехал сейчас (иначе пачка с одного этажа разбивается по разным лифтам).
+        // группа больше кабины делится: за один заезд ее все равно не забрать
+        if ((requestedDirection == Direction.UP ? externalUpTargets : externalDownTargets).contains(floor)
+                && countWaiting(floor, requestedDirection) < capacity) {
+            return true;
+        }
+
+        // принимаем вызов только если он вписывается в маршрут
+        boolean shouldAccept = fitsRoute(direction, status == ElevatorStatus.MOVING, currentFloor,
+                isAboutToChangeDirection(), floor, requestedDirection);
+
+        if (!shouldAccept) {
+            events.emit(EventType.CALL_REFUSED, id, floor, 0,
+                    (direction.ordinal() << 1) | (requestedDirection == Direction.UP ? 1 : 0));
+            return false;
+        }
+
+        if (requestedDirection == Direction.UP) {
+            externalUpTargets.add(floor);
+        } else {
+            externalDownTargets.add(floor);
+        }
+        routeVersion++;
+        replanLeg();
+        refreshDirection();
+        return true;
+    }
+
+    /* в пути: сдвиг currentFloor к последнему этажу, где остановиться уже нельзя */
+    private void updatePosition() {
+        if (status != ElevatorStatus.MOVING) {
+            return;
+        }
+        currentFloor = passedFloor(brakeStarts, legStartFloor, legTarget, clock.currentTimeMillis() - legStartTime);
+    }
+
+    /* последний этаж перегона, перед которым через elapsed мс пути затормозить уже нельзя */
+    static int passedFloor(long[] brakeStarts, int legStartFloor, int legTarget, long elapsed) {
+        // перегоны короче текущего, торможение для которых уже должно было начаться
+        int low = 0;
+        int high = Math.abs(legTarget - legStartFloor) - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (brakeStarts[mid] < elapsed) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
-            else if (direction == Direction.DOWN && requestedDirection == Direction.DOWN && floor <= currentFloor) {
-                shouldAccept = true; //  вниз и вызов снизу по пути
+        }
+        return legTarget > legStartFloor ? legStartFloor + low : legStartFloor - low;
+    }
+
+    /*
+     * перепланирование перегона по живому маршруту: кабина едет к той остановке,
+     * которую nextStop() выбрал бы сейчас. ближе - если перед ней еще можно
+     * затормозить, дальше (новая точка разворота, отпавшая цель) - если торможение
+     * к прежней цели еще не началось. время считается так, будто перегон с самого
+     * начала планировался до новой цели
+     */
+    private void replanLeg() {
+        if (status != ElevatorStatus.MOVING) {
+            return;
+        }
+        int next = nextStop();
+        int sign = legTarget > legStartFloor ? 1 : -1;
+        if (next < 0 || next == legTarget || sign * (next - currentFloor) <= 0) {
+            return;
+        }
+        if (sign * (next - legTarget) > 0) {
+            long elapsed = clock.currentTimeMillis() - legStartTime;
+            if (elapsed >= brakeStarts[Math.abs(legTarget - legStartFloor)]) {
+                return;
             }
-            // если лифт едет в противоположном направлении, но уже близко к развороту
-            else if (isAboutToChangeDirection() && Math.abs(currentFloor - floor) <= 2) {
-                shouldAccept = true; // принимаем близкие вызовы перед разворотом
+        }
+        legTarget = next;
+        nextStepTime = legStartTime + legTimes[Math.abs(next - legStartFloor)];
+        wakeup.signal();
+    }
+
+    /* свободный лифт ждет сигнала без опроса - новая цель будит его сразу; в пути будит replanLeg */
+    private void wakeIfIdle() {
+        if (status == ElevatorStatus.STOPPED) {
+            wakeup.signal();
+        }
+    }
+
+    /*
+     * правило приема вызова с этажа - общее для лифта и для оценки диспетчера по снимку.
+     * position - текущий этаж (в пути - последний, перед которым уже не затормозить),
+     * turning - по ходу движения целей не осталось
+     */
+    static boolean fitsRoute(Direction direction, boolean moving, int position, boolean turning,
+                             int floor, Direction requestedDirection) {
+        if (direction == Direction.IDLE) {
+            return true; // свободный лифт принимает любой вызов (на своем этаже - откроет двери)
+        }
+        if (direction == requestedDirection) {
+            // попутный вызов впереди по ходу; текущий этаж в движении уже проехан
+            boolean ahead = floor == position ? !moving
+                    : direction == Direction.UP ? floor > position : floor < position;
+            if (ahead) {
+                return true;
             }
+        }
+        // если лифт едет в противоположном направлении, но уже близко к развороту
+        return turning && Math.abs(position - floor) <= 2;
+    }
 
-            if (shouldAccept) {
-                if (requestedDirection == Direction.UP) {
-                    if (!externalUpTargets.contains(floor)) {
-                        externalUpTargets.add(floor);
-                        GuiLogger.log("Лифт " + id + ": принят вызов ВВЕРХ с этажа " + floor);
-                    }
-                } else {
-                    if (!externalDownTargets.contains(floor)) {
-                        externalDownTargets.add(floor);
-                        GuiLogger.log("Лифт " + id + ": принят вызов ВНИЗ с этажа " + floor);
-                    }
-                }
-                rebuildExecutionQueue();
-            } else {
-                GuiLogger.log("Лифт " + id + ": отклонен вызов с этажа " + floor +
-                        " (направление: " + requestedDirection +
-                        ", текущее направление: " + direction + ")");
+    private static List<PassengerRequest> floorList(List<PassengerRequest>[] lists, int floor) {
+        if (lists[floor] == null) {
+            lists[floor] = new ArrayList<>();
+        }
+        return lists[floor];
+    }
+
+    public void addListener(ElevatorListener listener) {
+        listeners.add(listener);
+    }
+
+    /* уведомления вне монитора лифта */
+    private void notifyTargetAdded() {
+        for (ElevatorListener listener : listeners) {
+            listener.onTargetAdded(this);
+        }
+    }
+
+    private void notifyStateChanged() {
+        for (ElevatorListener listener : listeners) {
+            listener.onStateChanged(this);
+        }
+    }
+
+    private void notifyAlighted() {
+        if (alightedAtStop.isEmpty()) {
+            return;
+        }
+        for (PassengerRequest passenger : alightedAtStop) {
+            for (ElevatorListener listener : listeners) {
+                listener.onPassengerAlighted(this, passenger);
             }
         }
+        alightedAtStop.clear();
     }
 
 
     private boolean isAboutToChangeDirection() {
         if (direction == Direction.UP) {
-            return internalTargets.stream().noneMatch(f -> f > currentFloor) &&
-                    externalUpTargets.stream().noneMatch(f -> f > currentFloor);
+            return internalTargets.nextSetBit(currentFloor + 1) < 0 &&
+                    externalUpTargets.nextSetBit(currentFloor + 1) < 0;
         } else if (direction == Direction.DOWN) {
-            return internalTargets.stream().noneMatch(f -> f < currentFloor) &&
-                    externalDownTargets.stream().noneMatch(f -> f < currentFloor);
+            return internalTargets.previousSetBit(currentFloor - 1) < 0 &&
+                    externalDownTargets.previousSetBit(currentFloor - 1) < 0;
         }
         return false;
     }
 
 
-    private void rebuildExecutionQueue() {
-        executionQueue.clear();
-
-
-        List<Integer> targetsInCurrentDirection = new ArrayList<>();
-        List<Integer> targetsInOppositeDirection = new ArrayList<>();
-
-        if (direction == Direction.UP || direction == Direction.IDLE) {
-            targetsInCurrentDirection.addAll(
-                    internalTargets.stream()
-                            .filter(f -> f > currentFloor)
-                            .sorted()
-                            .collect(Collectors.toList())
-            );
-            targetsInCurrentDirection.addAll(
-                    externalUpTargets.stream()
-                            .filter(f -> f > currentFloor)
-                            .sorted()
-                            .collect(Collectors.toList())
-            );
-
-            targetsInOppositeDirection.addAll(
-                    internalTargets.stream()
-                            .filter(f -> f < currentFloor)
-                            .sorted(Comparator.reverseOrder())
-                            .collect(Collectors.toList())
-            );
-            targetsInOppositeDirection.addAll(
-                    externalDownTargets.stream()
-                            .filter(f -> f < currentFloor)
-                            .sorted(Comparator.reverseOrder())
-                            .collect(Collectors.toList())
-            );
+    /*
+     * следующая остановка в порядке LOOK: сначала цели по ходу движения,
+     * затем разворот и обратный проход; -1 - целей вне текущего этажа нет
+     */
+    int nextStop() {
+        if (direction == Direction.DOWN) {
+            int stop = nextStopDown();
+            return stop >= 0 ? stop : nextStopUp();
+        }
+        int stop = nextStopUp();
+        return stop >= 0 ? stop : nextStopDown();
+    }
 
-        } else if (direction == Direction.DOWN) {
-            targetsInCurrentDirection.addAll(
-                    internalTargets.stream()
-                            .filter(f -> f < currentFloor)
-                            .sorted(Comparator.reverseOrder())
-                            .collect(Collectors.toList())
-            );
-            targetsInCurrentDirection.addAll(
-                    externalDownTargets.stream()
-                            .filter(f -> f < currentFloor)
-                            .sorted(Comparator.reverseOrder())
-                            .collect(Collectors.toList())
-            );
-
-            targetsInOppositeDirection.addAll(
-                    internalTargets.stream()
-                            .filter(f -> f > currentFloor)
-                            .sorted()
-                            .collect(Collectors.toList())
-            );
-            targetsInOppositeDirection.addAll(
-                    externalUpTargets.stream()
-                            .filter(f -> f > currentFloor)
-                            .sorted()
-                            .collect(Collectors.toList())
-            );
-        }
-
-
-        if (!targetsInCurrentDirection.isEmpty()) {
-            if (direction == Direction.IDLE) {
-                direction = targetsInCurrentDirection.get(0) > currentFloor ? Direction.UP : Direction.DOWN;
-            }
-            targetsInCurrentDirection.forEach(executionQueue::offer);
-            targetsInOppositeDirection.forEach(executionQueue::offer);
+    /*
+     * ближайшая цель выше по пути вверх; иначе самый верхний вызов вниз - там разворот.
+     * полная кабина вызовы проезжает, поэтому едет только к целям в кабине
+     */
+    private int nextStopUp() {
+        boolean full = load >= capacity;
+        int internal = internalTargets.nextSetBit(currentFloor + 1);
+        int up = full ? -1 : externalUpTargets.nextSetBit(currentFloor + 1);
+        if (internal >= 0 || up >= 0) {
+            return internal < 0 ? up : (up < 0 ? internal : Math.min(internal, up));
         }
+        int top = full ? -1 : externalDownTargets.last();
+        return top > currentFloor ? top : -1;
+    }
 
-        else if (!targetsInOppositeDirection.isEmpty()) {
-            direction = targetsInOppositeDirection.get(0) > currentFloor ? Direction.UP : Direction.DOWN;
-            targetsInOppositeDirection.forEach(executionQueue::offer);
+    /* ближайшая цель ниже по пути вниз; иначе самый нижний вызов вверх */
+    private int nextStopDown() {
+        boolean full = load >= capacity;
+        int stop = Math.max(
+                internalTargets.previousSetBit(currentFloor - 1),
+                full ? -1 : externalDownTargets.previousSetBit(currentFloor - 1));
+        if (stop >= 0) {
+            return stop;
         }
+        int bottom = full ? -1 : externalUpTargets.first();
+        return bottom >= 0 && bottom < currentFloor ? bottom : -1;
+    }
+
+    private boolean hasStopsAbove() {
+        return internalTargets.nextSetBit(currentFloor + 1) >= 0 ||
+                externalUpTargets.nextSetBit(currentFloor + 1) >= 0 ||
+                externalDownTargets.nextSetBit(currentFloor + 1) >= 0;
+    }
+
+    private boolean hasStopsBelow() {
+        return internalTargets.previousSetBit(currentFloor - 1) >= 0 ||
+                externalUpTargets.previousSetBit(currentFloor - 1) >= 0 ||
+                externalDownTargets.previousSetBit(currentFloor - 1) >= 0;
+    }
+
+    /*
+     * какой вызов с текущего этажа обслужить: попутный, или встречный,
+     * если дальше по ходу ехать некуда (разворот). null - вызов не обслуживается
+     */
+    private Direction hallCallToServe() {
+        if (load >= capacity) {
+            return null; // полная кабина проезжает вызовы
+        }
+        boolean up = externalUpTargets.contains(currentFloor);
+        boolean down = externalDownTargets.contains(currentFloor);
 
-        else {
+        if (direction == Direction.UP) {
+            return up ? Direction.UP : (down && !hasStopsAbove() ? Direction.DOWN : null);
+        }
+        if (direction == Direction.DOWN) {
+            return down ? Direction.DOWN : (up && !hasStopsBelow() ? Direction.UP : null);
+        }
+        if (up && down) {
+            return hasStopsAbove() || !hasStopsBelow() ? Direction.UP : Direction.DOWN;
+        }
+        return up ? Direction.UP : (down ? Direction.DOWN : null);
+    }
+
+    /* направление после изменения целей: к следующей остановке или IDLE */
+    private void refreshDirection() {
+        int next = nextStop();
+        if (next >= 0) {
+            direction = next > currentFloor ? Direction.UP : Direction.DOWN;
+        } else if (!shouldStopAtCurrentFloor()) {
             direction = Direction.IDLE;
         }
+    }
 
+    /* шаг автомата лифта: возвращает задержку до следующего шага в мс или IDLE, если целей нет */
+    public long step() {
+        long delay;
+        synchronized (this) {
+            long now = clock.currentTimeMillis();
 
-        if (!executionQueue.isEmpty()) {
-            GuiLogger.log("Лифт " + id + ": новый маршрут: " +
-                    executionQueue.stream().map(String::valueOf).collect(Collectors.joining(" → ")));
+            // разбудили раньше срока (перегон продлен или событие устарело) - ждем дальше
+            if (status != ElevatorStatus.STOPPED && now < nextStepTime) {
+                return nextStepTime - now;
+            }
+
+            if (status == ElevatorStatus.MOVING) {
+                delay = arriveAtLegTarget();
+            } else {
+                if (status == ElevatorStatus.DOORS_OPEN) {
+                    closeDoors();
+                }
+                delay = departOrWait();
+            }
+
+            nextStepTime = delay == IDLE ? now : now + delay;
+            publishSnapshot();
         }
+
+        notifyAlighted();
+        notifyStateChanged();
+        return delay;
     }
 
     @Override
     public void run() {
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                Integer target = executionQueue.peek();
+                long delay = step();
 
-                if (target != null) {
-                    moveTo(target);
+                // нет целей - ждем новую цель; в пути сигнал будит, если перегон перепланирован
+                if (delay == IDLE) {
+                    wakeup.await();
                 } else {
-                    // Нет целей - ждем
-                    synchronized (this) {
-                        direction = Direction.IDLE;
-                        status = ElevatorStatus.STOPPED;
-                    }
-                    Thread.sleep(100);
+                    wakeup.await(delay);
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            GuiLogger.log("Лифт " + id + " остановлен");
+            log.log("Лифт " + id + " остановлен");
         } catch (Exception e) {
-            GuiLogger.log("Лифт " + id + " ошибка: " + e.getMessage());
+            log.log("Лифт " + id + " ошибка: " + e.getMessage());
             e.printStackTrace();
         } finally {
             logStatistics();
-            GuiLogger.log("Лифт " + id + " завершил работу");
+            log.log("Лифт " + id + " завершил работу");
         }
     }
 
-    private void moveTo(int target) throws InterruptedException {
-        synchronized (this) {
-            direction = target > currentFloor ? Direction.UP : Direction.DOWN;
-            status = ElevatorStatus.MOVING;
+    /* выбор следующего перегона из очереди выполнения */
+    private long departOrWait() {
+        // вызов, принятый на текущем этаже во время движения или стоянки
+        if (shouldStopAtCurrentFloor()) {
+            return openDoors();
         }
 
-        GuiLogger.log("Лифт " + id + ": движение с этажа " +
-                currentFloor + " на этаж " + target +
-                " (направление: " + direction + ")");
+        int target = nextStop();
+        if (target < 0) {
+            direction = Direction.IDLE;
+            status = ElevatorStatus.STOPPED;
+            return IDLE;
+        }
 
-        // движение между этажами
-        while (currentFloor != target && !Thread.currentThread().isInterrupted()) {
-            Thread.sleep(700); // скорость движения
+        legStartFloor = currentFloor;
+        legStartTime = clock.currentTimeMillis();
+        legTarget = target;
+        direction = target > currentFloor ? Direction.UP : Direction.DOWN;
+        status = ElevatorStatus.MOVING;
 
-            synchronized (this) {
-                currentFloor += (direction == Direction.UP ? 1 : -1);
+        events.emit(EventType.DEPARTED, id, currentFloor, 0, target);
 
-                // проверка, нужно ли остановиться на текущем этаже
-                if (shouldStopAtCurrentFloor()) {
-                    handleStop();
-                }
-            }
-        }
+        return legTimes[Math.abs(target - currentFloor)];
+    }
+
+    /* прибытие в конец перегона: промежуточных этажей автомат не касается */
+    private long arriveAtLegTarget() {
+        currentFloor = legTarget;
+        events.emit(EventType.ARRIVED, id, currentFloor, 0, 0);
 
-        if (!Thread.currentThread().isInterrupted() && currentFloor == target) {
-            GuiLogger.log("Лифт " + id + " прибыл на целевой этаж " + currentFloor);
-            handleStop();
+        // цель перегона могла перестать требовать остановки (полная кабина проезжает вызов)
+        if (shouldStopAtCurrentFloor()) {
+            return openDoors();
         }
+        return departOrWait();
     }
 
+    /* вызовы встречного направления проезжаем, пока по ходу есть другие цели */
     private boolean shouldStopAtCurrentFloor() {
-        return internalTargets.contains(currentFloor) ||
-                externalUpTargets.contains(currentFloor) ||
-                externalDownTargets.contains(currentFloor);
+        return internalTargets.contains(currentFloor) || hallCallToServe() != null;
     }
 
-    private void handleStop() throws InterruptedException {
+    /* остановка: двери открываются, пассажиры выходят и входят */
+    private long openDoors() {
         totalStops++;
-
-
-        boolean isInternalStop = internalTargets.contains(currentFloor);
-        boolean isExternalUpStop = externalUpTargets.contains(currentFloor);
-        boolean isExternalDownStop = externalDownTargets.contains(currentFloor);
-
-
-        openDoors();
-
-        // обработка остановки
-        if (isInternalStop) {
-            passengersServed++;
-            GuiLogger.log("Лифт " + id + ": пассажир вышел на этаже " + currentFloor);
+        status = ElevatorStatus.DOORS_OPEN;
+
+        events.emit(EventType.DOORS_OPENED, id, currentFloor, 0, 0);
+
+        long now = clock.currentTimeMillis();
+
+        // выход, посадка и снятие вызова меняют цели
+        routeVersion++;
+        internalTargets.remove(currentFloor);
+
+        // выход пассажиров, приехавших на этот этаж
+        int alighted = 0;
+        List<PassengerRequest> arriving = ridingByFloor[currentFloor];
+        if (arriving != null) {
+            alighted = arriving.size();
+            load -= alighted;
+            for (PassengerRequest passenger : arriving) {
+                long rideTime = now - passenger.boardTime;
+                rideTimes.record(rideTime);
+                passengersServed++;
+                events.emit(EventType.PASSENGER_ALIGHTED, id, currentFloor, passenger.getUserId(), (int) rideTime);
+            }
+            alightedAtStop.addAll(arriving);
+            arriving.clear();
         }
 
-        if (isExternalUpStop || isExternalDownStop) {
-            GuiLogger.log("Лифт " + id + ": пассажир вошел на этаже " + currentFloor);
+        // посадка ожидающих в обслуживаемом направлении; их этажи назначения становятся целями в кабине.
+        // вызов снимается, только если сели все - иначе лифт вернется за оставшимися
+        int boarded = 0;
+        Direction served = hallCallToServe();
+        if (served != null) {
+            direction = served;
+            boarded = boardPassengers(served, now);
+            if (!hasWaiting(served)) {
+                (served == Direction.UP ? externalUpTargets : externalDownTargets).remove(currentFloor);
+            }
         }
 
+        refreshDirection();
 
-        synchronized (this) {
-            internalTargets.remove(currentFloor);
-            externalUpTargets.remove(currentFloor);
-            externalDownTargets.remove(currentFloor);
-
+        return DOOR_OPEN_MS + PASSENGER_TRANSFER_MS * (alighted + boarded);
+    }
 
-            rebuildExecutionQueue();
+    /* посадка, пока есть места; возвращает число вошедших */
+    private int boardPassengers(Direction served, long now) {
+        int boarded = 0;
+        List<PassengerRequest> boarding = waitingByFloor[currentFloor];
+        if (boarding != null) {
+            Iterator<PassengerRequest> it = boarding.iterator();
+            while (it.hasNext() && load < capacity) {
+                PassengerRequest passenger = it.next();
+                if (passenger.getRequestedDirection() != served) {
+                    continue;
+                }
+                it.remove();
+                boarded++;
+                load++;
+                if (--plannedDropoffCounts[passenger.getToFloor()] == 0) {
+                    plannedDropoffs.remove(passenger.getToFloor());
+                }
+                passenger.boardTime = now;
+                long waitTime = now - passenger.getRequestTime();
+                waitTimes.record(waitTime);
+                floorList(ridingByFloor, passenger.getToFloor()).add(passenger);
+                internalTargets.add(passenger.getToFloor());
+                events.emit(EventType.PASSENGER_BOARDED, id, currentFloor, passenger.getUserId(), (int) waitTime);
+            }
         }
-
-
-        closeDoors();
+        maxLoad = Math.max(maxLoad, load);
+        return boarded;
     }
 
-    private void openDoors() throws InterruptedException {
-        synchronized (this) {
-            status = ElevatorStatus.DOORS_OPEN;
+    private int countWaiting(int floor, Direction wanted) {
+        int count = 0;
+        List<PassengerRequest> waiting = waitingByFloor[floor];
+        if (waiting != null) {
+            for (PassengerRequest passenger : waiting) {
+                if (passenger.getRequestedDirection() == wanted) {
+                    count++;
+                }
+            }
         }
-
-        GuiLogger.log("Лифт " + id + " двери открыты на этаже " + currentFloor);
-        Thread.sleep(1000);
+        return count;
     }
 
-    private void closeDoors() {
-        GuiLogger.log("Лифт " + id + " двери закрыты");
-
-        synchronized (this) {
-            if (executionQueue.isEmpty()) {
-                status = ElevatorStatus.STOPPED;
-                direction = Direction.IDLE;
-            } else {
-                status = ElevatorStatus.MOVING;
+    /* остались ли на текущем этаже ожидающие в этом направлении */
+    private boolean hasWaiting(Direction wanted) {
+        List<PassengerRequest> waiting = waitingByFloor[currentFloor];
+        if (waiting != null) {
+            for (PassengerRequest passenger : waiting) {
+                if (passenger.getRequestedDirection() == wanted) {
+                    return true;
+                }
             }
         }
+        return false;
+    }
+
+    private void closeDoors() {
+        events.emit(EventType.DOORS_CLOSED, id, currentFloor, 0, load);
+        status = ElevatorStatus.STOPPED;
     }
 
     private void logStatistics() {
-        GuiLogger.log("Статистика лифта " + id);
-        GuiLogger.log("Обслужено пассажиров: " + passengersServed);
-        GuiLogger.log("Всего остановок: " + totalStops);
+        log.log("Статистика лифта " + id);
+        log.log("Обслужено пассажиров: " + passengersServed);
+        log.log("Всего остановок: " + totalStops);
 
     }
 
     /* отображение статуса в GUI */
-    public synchronized String getStatusDisplay() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Лифт #").append(id).append("\n");
-        sb.append("Этаж: ").append(currentFloor).append("\n");
-        sb.append("Статус: ").append(status).append("\n");
-        sb.append("Направление: ").append(direction).append("\n");
-        sb.append("Цели: ");
-
-        List<Integer> allTargets = getAllTargets();
-        if (allTargets.isEmpty()) {
-            sb.append("нет");
-        } else {
-            sb.append(allTargets.stream()
-                    .sorted()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(", ")));
-        }
-        sb.append("\n");
-        sb.append("Пассажиров: ").append(passengersServed);
-
-        return sb.toString();
+    public String getStatusDisplay() {
+        return snapshot.getStatusDisplay();
     }
-}
\ No newline at end of file
+}
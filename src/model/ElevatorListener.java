@@ -0,0 +1,14 @@
+package model;
+
+/* наблюдатель за лифтом (например, событийный движок будит простаивающий лифт) */
+public interface ElevatorListener {
+
+    /* лифт получил новую цель */
+    default void onTargetAdded(Elevator elevator) {}
+
+    /* лифт выполнил шаг: сменил этаж, открыл или закрыл двери, освободился */
+    default void onStateChanged(Elevator elevator) {}
+
+    /* пассажир вышел из лифта (вызывается после шага, вне монитора лифта) */
+    default void onPassengerAlighted(Elevator elevator, PassengerRequest passenger) {}
+}
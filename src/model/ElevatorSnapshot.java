@@ -0,0 +1,253 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * неизменяемый снимок состояния лифта. лифт публикует новый снимок после
+ * каждого изменения, читатели (диспетчер, GUI) получают согласованные
+ * этаж, направление и цели одним чтением volatile-поля без монитора лифта
+ */
+public final class ElevatorSnapshot {
+    private final int id;
+    private final int currentFloor;
+    private final Direction direction;
+    private final ElevatorStatus status;
+    private final int targetsCount;
+    private final int furthestTargetInCurrentDirection;
+    private final int[] targets;
+    private final int[] plannedStops;
+    private final int[] joinableCalls; // ключи callKey по возрастанию
+    private final int load;
+    private final int capacity;
+    private final int maxLoad;
+    private final int passengersServed;
+    private final int totalStops;
+    private final int legStartFloor;
+    private final long legStartTime;
+    private final int legTarget;
+    private final long nextStepTime;
+    private final MotionProfile motion;
+    private final long[] legTimes; // общая с лифтом таблица, не изменяется
+    private final long[] brakeStarts; // тоже общая с лифтом
+
+    ElevatorSnapshot(int id, int currentFloor, Direction direction, ElevatorStatus status,
+                     int targetsCount, int furthestTargetInCurrentDirection, int[] targets,
+                     int[] plannedStops, int[] joinableCalls, int load, int capacity, int maxLoad,
+                     int passengersServed, int totalStops,
+                     int legStartFloor, long legStartTime, int legTarget, long nextStepTime,
+                     MotionProfile motion, long[] legTimes, long[] brakeStarts) {
+        this.id = id;
+        this.currentFloor = currentFloor;
+        this.direction = direction;
+        this.status = status;
+        this.targetsCount = targetsCount;
+        this.furthestTargetInCurrentDirection = furthestTargetInCurrentDirection;
+        this.targets = targets;
+        this.plannedStops = plannedStops;
+        this.joinableCalls = joinableCalls;
+        this.load = load;
+        this.capacity = capacity;
+        this.maxLoad = maxLoad;
+        this.passengersServed = passengersServed;
+        this.totalStops = totalStops;
+        this.legStartFloor = legStartFloor;
+        this.legStartTime = legStartTime;
+        this.legTarget = legTarget;
+        this.nextStepTime = nextStepTime;
+        this.motion = motion;
+        this.legTimes = legTimes;
+        this.brakeStarts = brakeStarts;
+    }
+
+    /* ключ вызова с этажа: этаж и направление в одном числе */
+    static int callKey(int floor, Direction requestedDirection) {
+        return floor * 2 + (requestedDirection == Direction.UP ? 1 : 0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public ElevatorStatus getStatus() {
+        return status;
+    }
+
+    public int getTargetsCount() {
+        return targetsCount;
+    }
+
+    public int getFurthestTargetInCurrentDirection() {
+        return furthestTargetInCurrentDirection;
+    }
+
+    /* этажи всех целей по возрастанию */
+    public List<Integer> getTargets() {
+        List<Integer> all = new ArrayList<>(targets.length);
+        for (int floor : targets) {
+            all.add(floor);
+        }
+        return all;
+    }
+
+    /* цели плюс этажи назначения назначенных, но не севших пассажиров */
+    public boolean isPlannedStop(int floor) {
+        return Arrays.binarySearch(plannedStops, floor) >= 0;
+    }
+
+    /* наименьший и наибольший этаж плана; при пустом плане - fallback */
+    public int getLowestPlannedStop(int fallback) {
+        return plannedStops.length == 0 ? fallback : plannedStops[0];
+    }
+
+    public int getHighestPlannedStop(int fallback) {
+        return plannedStops.length == 0 ? fallback : plannedStops[plannedStops.length - 1];
+    }
+
+    /* время проезда от from до to со стоянками на этажах плана между ними, мс */
+    public long getRouteTimeMs(int from, int to) {
+        int low = Math.min(from, to);
+        int high = Math.max(from, to);
+        if (low == high) {
+            return 0;
+        }
+
+        long time = 0;
+        int previous = low;
+        for (int i = lowerBound(low + 1), end = lowerBound(high); i < end; i++) {
+            time += legTimes[plannedStops[i] - previous] + Elevator.DOOR_OPEN_MS;
+            previous = plannedStops[i];
+        }
+        return time + legTimes[high - previous];
+    }
+
+    /* перегон с места до остановки на floors этажей, мс */
+    public long getTravelTimeMs(int floors) {
+        return legTimes[floors];
+    }
+
+    /* индекс первого этажа плана >= floor */
+    private int lowerBound(int floor) {
+        int low = 0;
+        int high = plannedStops.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (plannedStops[mid] < floor) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /* пассажиров в кабине */
+    public int getLoad() {
+        return load;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getMaxLoad() {
+        return maxLoad;
+    }
+
+    public boolean isFull() {
+        return load >= capacity;
+    }
+
+    /* текущий или последний перегон */
+    public int getLegStartFloor() {
+        return legStartFloor;
+    }
+
+    public long getLegStartTime() {
+        return legStartTime;
+    }
+
+    public int getLegTarget() {
+        return legTarget;
+    }
+
+    /* момент прибытия в пути или закрытия дверей на стоянке */
+    public long getNextStepTime() {
+        return nextStepTime;
+    }
+
+    public MotionProfile getMotion() {
+        return motion;
+    }
+
+    public int getPassengersServed() {
+        return passengersServed;
+    }
+
+    public int getTotalStops() {
+        return totalStops;
+    }
+
+    /* этаж в момент now: в пути - последний, перед которым кабина уже не затормозит */
+    public int getFloorAt(long now) {
+        if (status != ElevatorStatus.MOVING) {
+            return currentFloor;
+        }
+        return Elevator.passedFloor(brakeStarts, legStartFloor, legTarget, now - legStartTime);
+    }
+
+    /*
+     * примет ли лифт вызов с этажа в момент now - по тому же правилу, что и сам лифт.
+     * цели со времени снимка не менялись, поэтому "целей по ходу нет" - это крайняя цель
+     * не дальше этажа, до которого кабина доехала
+     */
+    public boolean acceptsCall(int floor, Direction requestedDirection, long now) {
+        if (Arrays.binarySearch(joinableCalls, callKey(floor, requestedDirection)) >= 0) {
+            return true;
+        }
+        int position = getFloorAt(now);
+        boolean turning = direction == Direction.UP ? furthestTargetInCurrentDirection <= position
+                : direction == Direction.DOWN && furthestTargetInCurrentDirection >= position;
+        return Elevator.fitsRoute(direction, status == ElevatorStatus.MOVING, position, turning,
+                floor, requestedDirection);
+    }
+
+    /* стоит с закрытыми дверями и без целей */
+    public boolean isAvailable() {
+        return status == ElevatorStatus.STOPPED && targetsCount == 0;
+    }
+
+    /* отображение статуса в GUI */
+    public String getStatusDisplay() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Лифт #").append(id).append("\n");
+        sb.append("Этаж: ").append(currentFloor).append("\n");
+        sb.append("Статус: ").append(status).append("\n");
+        sb.append("Направление: ").append(direction).append("\n");
+        sb.append("Загрузка: ").append(load).append("/").append(capacity).append("\n");
+        sb.append("Цели: ");
+
+        if (targets.length == 0) {
+            sb.append("нет");
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(targets[i]);
+        }
+        sb.append("\n");
+        sb.append("Пассажиров: ").append(passengersServed);
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+/*
+ * множество этажей на битовой маске (по биту на этаж в словах long).
+ * проверка и изменение за O(1) без упаковки Integer, поиск ближайшего
+ * этажа выше/ниже - по целым словам через numberOfTrailingZeros/LeadingZeros
+ */
+public final class FloorSet {
+
+    private final long[] words;
+    private int size = 0;
+
+    public FloorSet(int maxFloor) {
+        this.words = new long[(maxFloor >> 6) + 1];
+    }
+
+    public boolean contains(int floor) {
+        return floor >= 0 && (floor >> 6) < words.length && (words[floor >> 6] & (1L << floor)) != 0;
+    }
+
+    public boolean add(int floor) {
+        long mask = 1L << floor;
+        long word = words[floor >> 6];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        words[floor >> 6] = word | mask;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int floor) {
+        if (!contains(floor)) {
+            return false;
+        }
+        words[floor >> 6] &= ~(1L << floor);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /* ближайший этаж >= from, или -1 */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int index = from >> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /* ближайший этаж <= from, или -1 */
+    public int previousSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int index = from >> 6;
+        if (index >= words.length) {
+            index = words.length - 1;
+            from = (index << 6) + 63;
+        }
+
+        long word = words[index] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (index-- == 0) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /* наименьший этаж, или -1 */
+    public int first() {
+        return nextSetBit(0);
+    }
+
+    /* наибольший этаж, или -1 */
+    public int last() {
+        return previousSetBit((words.length << 6) - 1);
+    }
+
+    /* есть ли этаж в диапазоне [from, to] */
+    public boolean anyInRange(int from, int to) {
+        int next = nextSetBit(from);
+        return next >= 0 && next <= to;
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+/*
+ * кинематика кабины: разгон с ограничением рывка до максимальной скорости,
+ * равномерный ход и симметричное торможение (S-образный профиль скорости).
+ * время перегона считается аналитически по числу этажей, поэтому длинный
+ * экспрессный перегон быстрее в пересчете на этаж, чем короткие переезды
+ */
+public final class MotionProfile {
+
+    /* типичный лифт среднеэтажного дома */
+    public static final MotionProfile DEFAULT = new MotionProfile(3.5, 2.5, 1.0, 1.5);
+
+    private final double floorHeight;  // м
+    private final double maxSpeed;     // м/с
+    private final double acceleration; // м/с^2
+    private final double jerk;         // м/с^3
+
+    public MotionProfile(double floorHeight, double maxSpeed, double acceleration, double jerk) {
+        if (floorHeight <= 0 || maxSpeed <= 0 || acceleration <= 0 || jerk <= 0) {
+            throw new IllegalArgumentException("Параметры движения должны быть положительными");
+        }
+        this.floorHeight = floorHeight;
+        this.maxSpeed = maxSpeed;
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+    }
+
+    public double getFloorHeight() {
+        return floorHeight;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    public double getJerk() {
+        return jerk;
+    }
+
+    /* время перегона на floors этажей с места до остановки, мс */
+    public long travelTimeMs(int floors) {
+        if (floors <= 0) {
+            return 0;
+        }
+        return Math.round(travelTime(floors * floorHeight) * 1000);
+    }
+
+    /*
+     * момент от начала перегона на floors этажей, когда начинается торможение, мс.
+     * до этого момента кабина еще может остановиться на этом этаже
+     */
+    public long brakeStartMs(int floors) {
+        if (floors <= 0) {
+            return 0;
+        }
+        double distance = floors * floorHeight;
+        return Math.round((travelTime(distance) - accelerationTime(peakSpeed(distance))) * 1000);
+    }
+
+    /* этаж на крейсерской скорости, мс: цена удлинения маршрута */
+    public long cruiseFloorMs() {
+        return Math.round(floorHeight / maxSpeed * 1000);
+    }
+
+    /* потеря времени на разгон и торможение одной остановки против проезда на крейсерской скорости, мс */
+    public long stopLossMs() {
+        return Math.round(accelerationTime(maxSpeed) * 1000);
+    }
+
+    /* таблица времени перегонов на 0..floors этажей, мс */
+    public long[] travelTimes(int floors) {
+        long[] times = new long[floors + 1];
+        for (int i = 1; i <= floors; i++) {
+            times[i] = travelTimeMs(i);
+        }
+        return times;
+    }
+
+    /* таблица моментов начала торможения для перегонов на 0..floors этажей, мс */
+    public long[] brakeStarts(int floors) {
+        long[] times = new long[floors + 1];
+        for (int i = 1; i <= floors; i++) {
+            times[i] = brakeStartMs(i);
+        }
+        return times;
+    }
+
+    private double travelTime(double distance) {
+        double peak = peakSpeed(distance);
+        double time = 2 * accelerationTime(peak);
+        if (peak == maxSpeed) {
+            time += (distance - 2 * accelerationDistance(maxSpeed)) / maxSpeed;
+        }
+        return time;
+    }
+
+    /* наибольшая скорость на перегоне: максимальная или та, с которой пора тормозить сразу после разгона */
+    private double peakSpeed(double distance) {
+        if (2 * accelerationDistance(maxSpeed) <= distance) {
+            return maxSpeed;
+        }
+        double low = 0;
+        double high = maxSpeed;
+        for (int i = 0; i < 60; i++) {
+            double mid = (low + high) / 2;
+            if (2 * accelerationDistance(mid) < distance) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /* разгон с места до скорости speed: рывок до полного ускорения, ровное ускорение, рывок вниз */
+    private double accelerationTime(double speed) {
+        if (speed * jerk >= acceleration * acceleration) {
+            return speed / acceleration + acceleration / jerk;
+        }
+        return 2 * Math.sqrt(speed / jerk); // полное ускорение не достигается
+    }
+
+    /* профиль разгона симметричен, поэтому средняя скорость - половина конечной */
+    private double accelerationDistance(double speed) {
+        return speed * accelerationTime(speed) / 2;
+    }
+}
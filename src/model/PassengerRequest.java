@@ -0,0 +1,57 @@
+package model;
+
+/* запрос пассажира; лифт отмечает время посадки, чтобы посчитать время ожидания и поездки */
+public class PassengerRequest {
+    private final int userId;
+    private final int fromFloor;
+    private final Direction requestedDirection;
+    private final int toFloor;
+    private final long requestTime;
+    // поездка с пересадками, участком которой является запрос; 0 - самостоятельный запрос
+    private final int tripId;
+
+    // время посадки (заполняет лифт)
+    long boardTime = -1;
+
+    public PassengerRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor, long requestTime) {
+        this(userId, fromFloor, requestedDirection, toFloor, requestTime, 0);
+    }
+
+    public PassengerRequest(int userId, int fromFloor, Direction requestedDirection, int toFloor, long requestTime,
+                            int tripId) {
+        this.userId = userId;
+        this.fromFloor = fromFloor;
+        this.requestedDirection = requestedDirection;
+        this.toFloor = toFloor;
+        this.requestTime = requestTime;
+        this.tripId = tripId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getFromFloor() {
+        return fromFloor;
+    }
+
+    public Direction getRequestedDirection() {
+        return requestedDirection;
+    }
+
+    public int getToFloor() {
+        return toFloor;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    public long getBoardTime() {
+        return boardTime;
+    }
+
+    public int getTripId() {
+        return tripId;
+    }
+}
@@ -0,0 +1,293 @@
+package sim;
+
+import control.DispatchMode;
+import control.DispatchRouter;
+import control.Dispatcher;
+import control.PassengerGenerator;
+import control.RequestTarget;
+import control.TraceReplayer;
+import control.Zone;
+import event.EventBus;
+import model.Elevator;
+import model.ElevatorListener;
+import model.ElevatorStatus;
+import model.MotionProfile;
+import model.PassengerRequest;
+import util.GuiLogger;
+import util.VirtualClock;
+
+import java.util.*;
+
+/*
+ * однопоточная дискретно-событийная симуляция: вместо потока на каждый лифт
+ * все лифты, диспетчер и генератор обслуживаются одной очередью событий.
+ * используется та же логика маршрутизации Elevator.step(), время виртуальное,
+ * результат воспроизводим при одинаковом seed.
+ * в многозонном доме у каждой зоны свой диспетчер, вызовы между ними делит маршрутизатор
+ */
+public final class EventDrivenSimulation implements ElevatorListener {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final EventBus events;
+    private final List<Elevator> elevators = new ArrayList<>();
+    // по диспетчеру на зону; в доме из одной зоны маршрутизатора нет
+    private final List<Dispatcher> dispatchers = new ArrayList<>();
+    private final DispatchRouter router;
+    private final RequestTarget target;
+    private final PassengerGenerator generator;
+    private final long arrivalIntervalMs;
+
+    private final PriorityQueue<SimulationEvent> queue = new PriorityQueue<>();
+    private final Set<Elevator> idleElevators = Collections.newSetFromMap(new IdentityHashMap<>());
+    // последнее запланированное событие каждого лифта; остальные его события устарели
+    private final Map<Elevator, SimulationEvent> pendingSteps = new IdentityHashMap<>();
+    private long sequence = 0;
+    private boolean batchScheduled = false;
+    private long processedEvents = 0;
+
+    // повтор журнала вместо генератора
+    private List<PassengerRequest> trace;
+    private double traceSpeed = 1.0;
+    private int traceIndex = 0;
+
+    public EventDrivenSimulation(int floors, int elevatorsCount, long arrivalIntervalMs, long seed) {
+        this(floors, elevatorsCount, Elevator.DEFAULT_CAPACITY, arrivalIntervalMs, seed);
+    }
+
+    public EventDrivenSimulation(int floors, int elevatorsCount, int capacity, long arrivalIntervalMs, long seed) {
+        this(floors, elevatorsCount, capacity, MotionProfile.DEFAULT, arrivalIntervalMs, seed);
+    }
+
+    public EventDrivenSimulation(int floors, int elevatorsCount, int capacity, MotionProfile motion,
+                                 long arrivalIntervalMs, long seed) {
+        this(floors, elevatorsCount, capacity, motion, arrivalIntervalMs, seed, new GuiLogger());
+    }
+
+    /* log - текстовый лог этой симуляции, метки времени в нем переводятся на ее виртуальные часы */
+    public EventDrivenSimulation(int floors, int elevatorsCount, int capacity, MotionProfile motion,
+                                 long arrivalIntervalMs, long seed, GuiLogger log) {
+        this(floors, List.of(Zone.whole(floors)), elevatorsCount, capacity, motion, arrivalIntervalMs, seed, log);
+    }
+
+    /* многозонный дом: лифты делятся по зонам (Zone.elevatorCounts) и стартуют с нижнего этажа своей зоны */
+    public EventDrivenSimulation(int floors, List<Zone> zones, int elevatorsCount, int capacity, MotionProfile motion,
+                                 long arrivalIntervalMs, long seed, GuiLogger log) {
+        if (arrivalIntervalMs <= 0) {
+            throw new IllegalArgumentException("Интервал генерации должен быть положительным");
+        }
+
+        log.setClock(clock);
+        this.events = new EventBus(clock, log);
+
+        int[] counts = Zone.elevatorCounts(zones, elevatorsCount);
+        for (int z = 0; z < zones.size(); z++) {
+            List<Elevator> bank = new ArrayList<>();
+            for (int i = 0; i < counts[z]; i++) {
+                Elevator elevator = new Elevator(elevators.size() + 1, zones.get(z).getLowestFloor(), floors,
+                        capacity, motion, clock, events);
+                elevator.addListener(this);
+                elevators.add(elevator);
+                idleElevators.add(elevator);
+                bank.add(elevator);
+            }
+            dispatchers.add(new Dispatcher(bank, floors, clock, events));
+        }
+
+        if (zones.size() > 1) {
+            this.router = new DispatchRouter(zones, dispatchers, clock);
+            this.target = router;
+        } else {
+            this.router = null;
+            this.target = dispatchers.get(0);
+        }
+        this.generator = new PassengerGenerator(target, floors, clock, seed);
+        this.arrivalIntervalMs = arrivalIntervalMs;
+    }
+
+    /* вызовы из журнала в записанные моменты, время сжато в speed раз; durationMs тогда не учитывается */
+    public void setTrace(List<PassengerRequest> trace, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Скорость повтора должна быть положительной");
+        }
+        this.trace = trace;
+        this.traceSpeed = speed;
+    }
+
+    /*
+     * генерация вызовов в течение durationMs виртуального времени,
+     * затем досчитываем, пока лифты не развезут всех пассажиров
+     */
+    public void run(long durationMs) {
+        long start = clock.currentTimeMillis();
+        long generationEnd = start + durationMs;
+
+        if (trace == null) {
+            schedule(start, SimulationEvent.Type.PASSENGER_CALL, null);
+        } else if (!trace.isEmpty()) {
+            schedule(start + TraceReplayer.replayTime(trace.get(0), traceSpeed), SimulationEvent.Type.TRACE_CALL, null);
+        }
+
+        while (!queue.isEmpty()) {
+            SimulationEvent event = queue.poll();
+            clock.advanceTo(event.time);
+            processedEvents++;
+
+            switch (event.type) {
+                case PASSENGER_CALL -> {
+                    generator.generateRandomRequest(event.time - start);
+                    if (isBatchMode()) {
+                        scheduleBatch();
+                    } else {
+                        dispatchPending();
+                    }
+
+                    long delay = generator.nextArrivalDelay(event.time - start, arrivalIntervalMs);
+                    long next = event.time + delay;
+                    if (delay != PassengerGenerator.NO_MORE_ARRIVALS && next < generationEnd) {
+                        schedule(next, SimulationEvent.Type.PASSENGER_CALL, null);
+                    }
+                }
+                case TRACE_CALL -> {
+                    PassengerRequest request = trace.get(traceIndex++);
+                    target.submitRequest(request.getUserId(), request.getFromFloor(),
+                            request.getRequestedDirection(), request.getToFloor());
+                    if (isBatchMode()) {
+                        scheduleBatch();
+                    } else {
+                        dispatchPending();
+                    }
+
+                    if (traceIndex < trace.size()) {
+                        schedule(start + TraceReplayer.replayTime(trace.get(traceIndex), traceSpeed),
+                                SimulationEvent.Type.TRACE_CALL, null);
+                    }
+                }
+                case DISPATCH_BATCH -> {
+                    batchScheduled = false;
+                    dispatchPending();
+                }
+                case ELEVATOR_WAKEUP, FLOOR_ARRIVAL, DOORS_CLOSE -> {
+                    if (pendingSteps.get(event.elevator) == event) {
+                        pendingSteps.remove(event.elevator);
+                        stepElevator(event.elevator);
+                    }
+                }
+            }
+        }
+    }
+
+    /* первый вызов пачки открывает окно; назначение - по его окончании */
+    private void scheduleBatch() {
+        if (!batchScheduled) {
+            batchScheduled = true;
+            schedule(clock.currentTimeMillis() + dispatchers.get(0).getBatchWindowMs(), SimulationEvent.Type.DISPATCH_BATCH, null);
+        }
+    }
+
+    /* режим назначения задается всем диспетчерам одинаково */
+    private boolean isBatchMode() {
+        return dispatchers.get(0).getMode() == DispatchMode.BATCH;
+    }
+
+    private void dispatchPending() {
+        for (Dispatcher dispatcher : dispatchers) {
+            dispatcher.dispatchPending();
+        }
+    }
+
+    private void stepElevator(Elevator elevator) {
+        int transfers = router != null ? router.getTransfersMade() : 0;
+        long delay = elevator.step();
+
+        if (delay == Elevator.IDLE) {
+            idleElevators.add(elevator);
+        } else {
+            SimulationEvent.Type next = elevator.getStatus() == ElevatorStatus.DOORS_OPEN
+                    ? SimulationEvent.Type.DOORS_CLOSE
+                    : SimulationEvent.Type.FLOOR_ARRIVAL;
+            scheduleStep(clock.currentTimeMillis() + delay, next, elevator);
+        }
+
+        // шаг лифта мог освободить место для отложенных вызовов; после учета простоя,
+        // чтобы назначение на этот же лифт разбудило его. высадка на пересадке
+        // подает вызов диспетчеру другой зоны, поэтому обходим все
+        if (isBatchMode()) {
+            dispatchers.forEach(Dispatcher::dispatchParked);
+            // следующий участок после пересадки - новый вызов, он ждет своей пачки
+            if (router != null && router.getTransfersMade() != transfers) {
+                scheduleBatch();
+            }
+        } else {
+            dispatchPending();
+        }
+    }
+
+    /*
+     * простаивающий лифт получил цель - будим его в текущий момент времени.
+     * лифт в пути мог перепланировать перегон под новую цель - прибытие переносится
+     */
+    @Override
+    public void onTargetAdded(Elevator elevator) {
+        if (idleElevators.remove(elevator)) {
+            scheduleStep(clock.currentTimeMillis(), SimulationEvent.Type.ELEVATOR_WAKEUP, elevator);
+            return;
+        }
+
+        SimulationEvent pending = pendingSteps.get(elevator);
+        long nextStep = elevator.getNextStepTime();
+        if (pending != null && pending.type == SimulationEvent.Type.FLOOR_ARRIVAL && nextStep != pending.time) {
+            scheduleStep(nextStep, SimulationEvent.Type.FLOOR_ARRIVAL, elevator);
+        }
+    }
+
+    private void scheduleStep(long time, SimulationEvent.Type type, Elevator elevator) {
+        pendingSteps.put(elevator, schedule(time, type, elevator));
+    }
+
+    private SimulationEvent schedule(long time, SimulationEvent.Type type, Elevator elevator) {
+        SimulationEvent event = new SimulationEvent(time, sequence++, type, elevator);
+        queue.add(event);
+        return event;
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /* шина событий для подключения получателей до запуска */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    public List<Elevator> getElevators() {
+        return Collections.unmodifiableList(elevators);
+    }
+
+    /* диспетчер первой (в доме из одной зоны - единственной) зоны */
+    public Dispatcher getDispatcher() {
+        return dispatchers.get(0);
+    }
+
+    public List<Dispatcher> getDispatchers() {
+        return Collections.unmodifiableList(dispatchers);
+    }
+
+    /* маршрутизатор многозонного дома; null - зона одна */
+    public DispatchRouter getRouter() {
+        return router;
+    }
+
+    /* куда подаются вызовы: маршрутизатор или единственный диспетчер */
+    public RequestTarget getRequestTarget() {
+        return target;
+    }
+
+    /* генератор для настройки профиля потока до запуска */
+    public PassengerGenerator getGenerator() {
+        return generator;
+    }
+
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+}
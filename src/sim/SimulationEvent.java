@@ -0,0 +1,36 @@
+package sim;
+
+import model.Elevator;
+
+/* событие с меткой времени в очереди событийного движка */
+final class SimulationEvent implements Comparable<SimulationEvent> {
+
+    enum Type {
+        PASSENGER_CALL,   // появление нового пассажира
+        TRACE_CALL,       // очередной вызов из журнала
+        DISPATCH_BATCH,   // истекло окно сбора пачки вызовов
+        ELEVATOR_WAKEUP,  // простаивающий лифт получил цель
+        FLOOR_ARRIVAL,    // лифт доехал до конца перегона
+        DOORS_CLOSE       // истекло время стоянки с открытыми дверями
+    }
+
+    final long time;
+    final long sequence; // порядок постановки: одинаковое время обрабатывается детерминированно
+    final Type type;
+    final Elevator elevator;
+
+    SimulationEvent(long time, long sequence, Type type, Elevator elevator) {
+        this.time = time;
+        this.sequence = sequence;
+        this.type = type;
+        this.elevator = elevator;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        if (time != other.time) {
+            return Long.compare(time, other.time);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+}
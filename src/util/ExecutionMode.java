@@ -0,0 +1,46 @@
+package util;
+
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * на чем выполняются участники симуляции со своим потоком (лифты, диспетчер,
+ * генератор): обычные потоки ОС или виртуальные. участники почти все время
+ * ждут часов, поэтому виртуальный поток на время ожидания отдает поток-носитель,
+ * и тысячи лифтов в реальном времени не упираются в число потоков ОС
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    /* фабрика потоков с именами prefix-1, prefix-2, ... */
+    public ThreadFactory threadFactory(String prefix) {
+        return this == VIRTUAL
+                ? Thread.ofVirtual().name(prefix + "-", 1).factory()
+                : Thread.ofPlatform().name(prefix + "-", 1).factory();
+    }
+
+    /*
+     * запуск участника симуляции со своим потоком. участник считается работающим
+     * по часам уже с этого вызова: иначе виртуальные часы ушли бы вперед, пока
+     * поток ждет носителя, а остальные участники спят
+     */
+    public Thread startParticipant(String name, SimulationClock clock, Runnable task) {
+        Thread thread = newThread(name, () -> {
+            try {
+                task.run();
+            } finally {
+                clock.unregister();
+            }
+        });
+        clock.register();
+        thread.start();
+        return thread;
+    }
+
+    /* поток, еще не запущенный */
+    public Thread newThread(String name, Runnable task) {
+        return this == VIRTUAL
+                ? Thread.ofVirtual().name(name).unstarted(task)
+                : Thread.ofPlatform().name(name).unstarted(task);
+    }
+}
@@ -1,24 +1,267 @@
 package util;
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/*
+ * асинхронный лог: писатели только кладут запись в кольцевой буфер,
+ * отдельный поток раз в кадр выгружает накопленное пачкой и
+ * добавляет его в текстовую область одним вызовом на EDT.
+ * у каждой симуляции свой лог: его передает шина событий (EventBus.getLog).
+ * пока не подключен ни один вывод, log ничего не стоит, а буфер и поток
+ * выгрузки не создаются
+ */
 public class GuiLogger {
-    private static JTextArea area;
-    private static long startTime;
+    // период выгрузки (около 30 кадров в секунду)
+    private static final long FRAME_MS = 33;
+    private static final int BUFFER_CAPACITY = 1 << 16;
+    // сколько последних строк хранит текстовая область
+    private static final int MAX_VISIBLE_LINES = 2000;
 
-    private GuiLogger() {}
+    private volatile JTextArea area;
+    private volatile PrintStream console;
+    private volatile Writer fileSink;
+    private volatile SimulationClock clock;
+    private volatile long startTime;
 
-    public static void init(JTextArea textArea) {
+    private volatile LogRingBuffer buffer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // пачка текущей выгрузки (под drainLock)
+    private final Object drainLock = new Object();
+    private final StringBuilder batch = new StringBuilder();
+
+    // текст, ожидающий добавления в область на EDT
+    private final StringBuilder pendingText = new StringBuilder();
+    private final AtomicBoolean uiUpdateScheduled = new AtomicBoolean();
+
+    private Thread consumer;
+
+    public GuiLogger() {
+        this(new RealTimeClock());
+    }
+
+    public GuiLogger(SimulationClock clock) {
+        this.clock = clock;
+        this.startTime = clock.currentTimeMillis();
+    }
+
+    public void init(JTextArea textArea) {
+        startConsumer();
         area = textArea;
-        startTime = System.currentTimeMillis();
+        startTime = clock.currentTimeMillis();
+    }
+
+    /* вывод лога без Swing (пакетный режим); null - вывод в консоль отключен */
+    public void initConsole(PrintStream out) {
+        if (out != null) {
+            startConsumer();
+        }
+        console = out;
+        startTime = clock.currentTimeMillis();
+    }
+
+    /* дополнительная запись лога в файл */
+    public void setFileSink(Path path) throws IOException {
+        closeFileSink();
+        startConsumer();
+        fileSink = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public void closeFileSink() {
+        flush();
+        synchronized (drainLock) {
+            if (fileSink != null) {
+                try {
+                    fileSink.close();
+                } catch (IOException e) {
+                    System.err.println("Ошибка закрытия файла лога: " + e.getMessage());
+                }
+                fileSink = null;
+            }
+        }
+    }
+
+    /* метки времени в логе берутся из часов симуляции */
+    public void setClock(SimulationClock simulationClock) {
+        clock = simulationClock;
+        startTime = simulationClock.currentTimeMillis();
+    }
+
+    /* подключен ли хоть один вывод: сообщения дороже строки можно не собирать */
+    public boolean isEnabled() {
+        return area != null || console != null || fileSink != null;
+    }
+
+    public void log(String message) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long currentTime = clock.currentTimeMillis() - startTime;
+        if (!buffer.offer(currentTime, message)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /* выгрузка накопленного к началу вызова; вызывается потоком лога раз в кадр и при завершении */
+    public void flush() {
+        LogRingBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+
+        synchronized (drainLock) {
+            batch.setLength(0);
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                batch.append("[лог переполнен, пропущено сообщений: ").append(lost).append("]\n");
+            }
+
+            // не больше одного буфера за раз: при непрерывной записи выгрузка не зацикливается,
+            // дописанное за это время заберет следующий кадр
+            buffer.drain(this::appendLine, BUFFER_CAPACITY);
+
+            if (batch.length() == 0) {
+                return;
+            }
+
+            String text = batch.toString();
+
+            PrintStream out = console;
+            if (out != null) {
+                out.print(text);
+                out.flush();
+            }
+
+            Writer file = fileSink;
+            if (file != null) {
+                try {
+                    file.write(text);
+                    file.flush();
+                } catch (IOException e) {
+                    System.err.println("Ошибка записи лога: " + e.getMessage());
+                }
+            }
+
+            if (area != null) {
+                publishToArea(text);
+            }
+        }
+    }
+
+    /* форматирование строки без String.format: [сек.мс] сообщение */
+    private void appendLine(long time, String message) {
+        long seconds = time / 1000;
+        long millis = time % 1000;
+
+        batch.append('[');
+        for (long d = 1000; d > 1 && seconds < d; d /= 10) {
+            batch.append('0');
+        }
+        batch.append(seconds).append('.');
+        if (millis < 100) {
+            batch.append('0');
+        }
+        if (millis < 10) {
+            batch.append('0');
+        }
+        batch.append(millis).append("] ").append(message).append('\n');
+    }
+
+    /* не больше одного ожидающего обновления области на EDT */
+    private void publishToArea(String text) {
+        synchronized (pendingText) {
+            pendingText.append(text);
+        }
+
+        if (!uiUpdateScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            uiUpdateScheduled.set(false);
+
+            String chunk;
+            synchronized (pendingText) {
+                chunk = pendingText.toString();
+                pendingText.setLength(0);
+            }
+
+            JTextArea target = area;
+            if (target == null || chunk.isEmpty()) {
+                return;
+            }
+
+            target.append(chunk);
+            trimHistory(target);
+        });
+    }
+
+    private static void trimHistory(JTextArea target) {
+        int excess = target.getLineCount() - MAX_VISIBLE_LINES;
+        if (excess <= 0) {
+            return;
+        }
+
+        try {
+            target.replaceRange("", 0, target.getLineEndOffset(excess - 1));
+        } catch (BadLocationException e) {
+            target.setText("");
+        }
+    }
+
+    /* остановка потока выгрузки с выгрузкой остатка; лог симуляции после нее не нужен */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = consumer;
+            consumer = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        closeFileSink();
+        console = null;
+        area = null;
     }
 
-    public static void log(String message) {
-        long currentTime = System.currentTimeMillis() - startTime;
-        String timeStamp = String.format("[%04d.%03d] ",
-                currentTime / 1000, currentTime % 1000);
+    /* буфер и поток создаются до подключения вывода, чтобы log не увидел вывод без буфера */
+    private synchronized void startConsumer() {
+        if (consumer != null) {
+            return;
+        }
+        if (buffer == null) {
+            buffer = new LogRingBuffer(BUFFER_CAPACITY);
+        }
 
-        SwingUtilities.invokeLater(() ->
-                area.append(timeStamp + message + "\n")
-        );
+        consumer = new Thread(() -> {
+            while (true) {
+                flush();
+                try {
+                    Thread.sleep(FRAME_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "GuiLogger");
+        consumer.setDaemon(true);
+        consumer.start();
     }
 }
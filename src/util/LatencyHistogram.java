@@ -0,0 +1,107 @@
+package util;
+
+/*
+ * гистограмма задержек в стиле HDR: до 128 мс точные значения,
+ * дальше логарифмические диапазоны по 64 ячейки (погрешность менее 1.6%).
+ * размер фиксирован и не зависит от числа записей
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_SHIFT = 64 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[SUB_BUCKETS + MAX_SHIFT * HALF];
+    private long totalCount = 0;
+    private long totalSum = 0;
+    private long max = 0;
+
+    public synchronized void record(long value) {
+        long v = Math.max(0, value);
+        counts[indexOf(v)]++;
+        totalCount++;
+        totalSum += v;
+        max = Math.max(max, v);
+    }
+
+    public synchronized void merge(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherTotal;
+        long otherSum;
+        long otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.totalCount;
+            otherSum = other.totalSum;
+            otherMax = other.max;
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += otherCounts[i];
+        }
+        totalCount += otherTotal;
+        totalSum += otherSum;
+        max = Math.max(max, otherMax);
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return totalCount > 0 ? (double) totalSum / totalCount : 0.0;
+    }
+
+    /* значение, не превышаемое percentile процентами записей */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /* краткая сводка в секундах для GUI и отчетов */
+    public synchronized String getSummary() {
+        if (totalCount == 0) {
+            return "нет данных";
+        }
+        return String.format("ср %.1f, p50 %.1f, p90 %.1f, p99 %.1f, макс %.1f сек.",
+                getMean() / 1000.0,
+                getValueAtPercentile(50) / 1000.0,
+                getValueAtPercentile(90) / 1000.0,
+                getValueAtPercentile(99) / 1000.0,
+                max / 1000.0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift); // от HALF до SUB_BUCKETS - 1
+        return SUB_BUCKETS + (shift - 1) * HALF + (subBucket - HALF);
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * ограниченный неблокирующий кольцевой буфер записей лога:
+ * много писателей, один читатель. номер последовательности в каждой ячейке
+ * показывает, свободна ли она для записи или уже заполнена
+ */
+public class LogRingBuffer {
+
+    /* получатель записей при выгрузке пачкой */
+    public interface Consumer {
+        void accept(long time, String message);
+    }
+
+    private final int mask;
+    private final int capacity;
+    private final AtomicLongArray sequences;
+    private final long[] times;
+    private final String[] messages;
+
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; // только для читателя
+
+    public LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки");
+        }
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.times = new long[capacity];
+        this.messages = new String[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /* false - буфер переполнен, запись отброшена */
+    public boolean offer(long time, String message) {
+        long position = tail.get();
+
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    times[index] = time;
+                    messages[index] = message;
+                    sequences.lazySet(index, position + 1); // публикация записи
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /* выгрузка до limit записей; вызывается только одним читателем */
+    public int drain(Consumer consumer, int limit) {
+        int drained = 0;
+
+        while (drained < limit) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break; // ячейка еще не заполнена
+            }
+
+            long time = times[index];
+            String message = messages[index];
+            messages[index] = null;
+            sequences.lazySet(index, head + capacity); // ячейка снова свободна
+            head++;
+
+            consumer.accept(time, message);
+            drained++;
+        }
+
+        return drained;
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* реальное время: поведение как раньше, через Thread.sleep */
+public class RealTimeClock implements SimulationClock {
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public void register() {
+    }
+
+    @Override
+    public void unregister() {
+    }
+
+    @Override
+    public Signal newSignal() {
+        return new Signal() {
+            // блокировка вместо монитора: ожидание не держит поток-носитель виртуального потока
+            private final ReentrantLock lock = new ReentrantLock();
+            private final Condition signalled = lock.newCondition();
+            private boolean permit = false;
+
+            @Override
+            public void await() throws InterruptedException {
+                lock.lock();
+                try {
+                    while (!permit) {
+                        signalled.await();
+                    }
+                    permit = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            @Override
+            public void await(long millis) throws InterruptedException {
+                lock.lock();
+                try {
+                    long left = TimeUnit.MILLISECONDS.toNanos(millis);
+                    while (!permit && left > 0) {
+                        left = signalled.awaitNanos(left);
+                    }
+                    permit = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            @Override
+            public void signal() {
+                lock.lock();
+                try {
+                    permit = true;
+                    signalled.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+}
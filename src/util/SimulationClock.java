@@ -0,0 +1,39 @@
+package util;
+
+/* источник времени симуляции: реальное время или виртуальное (ускоренное) */
+public interface SimulationClock {
+
+    long currentTimeMillis();
+
+    void sleep(long millis) throws InterruptedException;
+
+    /*
+     * регистрация участника симуляции (лифт, диспетчер, генератор) до запуска
+     * его потока - см. ExecutionMode.startParticipant; снимается по завершении
+     */
+    void register();
+
+    void unregister();
+
+    /* сигнал для ожидания новой работы без опроса */
+    Signal newSignal();
+
+    /*
+     * время больше не пойдет: все участники ждут сигналов без срока, и подать
+     * сигнал некому. реальные часы идут всегда
+     */
+    default boolean isStalled() {
+        return false;
+    }
+
+    interface Signal {
+
+        /* ждать сигнала; сигнал, поданный заранее, не теряется */
+        void await() throws InterruptedException;
+
+        /* ждать сигнала, но не дольше millis */
+        void await(long millis) throws InterruptedException;
+
+        void signal();
+    }
+}
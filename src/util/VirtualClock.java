@@ -0,0 +1,198 @@
+package util;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * виртуальное время: часы стоят, пока хотя бы один участник работает,
+ * и сразу перескакивают к ближайшему пробуждению, когда все участники
+ * спят или ждут сигнала. симуляция идет с максимальной скоростью процессора.
+ * sleep() можно вызывать только из зарегистрированных потоков.
+ * ожидание - на ReentrantLock, а не на мониторе: виртуальный поток,
+ * ждущий часов, освобождает поток-носитель
+ */
+public class VirtualClock implements SimulationClock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // любое изменение времени или пробуждение участника
+    private final Condition changed = lock.newCondition();
+
+    private volatile long now = 0;
+    private int running = 0;
+    private final PriorityQueue<Long> deadlines = new PriorityQueue<>();
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        lock.lock();
+        try {
+            long deadline = now + Math.max(0, millis);
+            deadlines.add(deadline);
+            running--;
+            advanceIfIdle();
+
+            try {
+                while (now < deadline) {
+                    changed.await();
+                }
+            } catch (InterruptedException e) {
+                // если пробуждение еще не наступило, снимаем его сами
+                if (now < deadline) {
+                    deadlines.remove(deadline);
+                    running++;
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void register() {
+        lock.lock();
+        try {
+            running++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unregister() {
+        lock.lock();
+        try {
+            running--;
+            advanceIfIdle();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isStalled() {
+        lock.lock();
+        try {
+            return running == 0 && deadlines.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* ручной сдвиг времени (для однопоточного событийного движка) */
+    public void advanceTo(long time) {
+        lock.lock();
+        try {
+            if (time > now) {
+                now = time;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* все участники ждут - переводим часы к ближайшему пробуждению (под lock) */
+    private void advanceIfIdle() {
+        if (running > 0 || deadlines.isEmpty()) {
+            return;
+        }
+
+        now = Math.max(now, deadlines.peek());
+        while (!deadlines.isEmpty() && deadlines.peek() <= now) {
+            deadlines.poll();
+            running++; // разбуженный участник снова считается работающим
+        }
+        changed.signalAll();
+    }
+
+    @Override
+    public Signal newSignal() {
+        return new Signal() {
+            private boolean permit = false;
+            private boolean parked = false;
+            private long deadline = Long.MAX_VALUE; // без ограничения ожидания пробуждение в очередь не ставится
+
+            @Override
+            public void await() throws InterruptedException {
+                awaitUntil(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void await(long millis) throws InterruptedException {
+                lock.lock();
+                try {
+                    awaitUntil(now + Math.max(0, millis));
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            private void awaitUntil(long until) throws InterruptedException {
+                lock.lock();
+                try {
+                    if (permit) {
+                        permit = false;
+                        return;
+                    }
+                    if (until <= now) {
+                        return;
+                    }
+
+                    parked = true;
+                    deadline = until;
+                    if (until != Long.MAX_VALUE) {
+                        deadlines.add(until);
+                    }
+                    running--;
+                    advanceIfIdle();
+
+                    try {
+                        while (parked && now < deadline) {
+                            changed.await();
+                        }
+                    } catch (InterruptedException e) {
+                        // ни сигнал, ни срок еще не вернули участника в работающие
+                        if (parked && now < deadline) {
+                            dropDeadline();
+                            running++;
+                        }
+                        throw e;
+                    } finally {
+                        parked = false;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            @Override
+            public void signal() {
+                lock.lock();
+                try {
+                    if (parked && now < deadline) {
+                        parked = false;
+                        dropDeadline();
+                        running++; // участник снова работает еще до фактического пробуждения
+                        changed.signalAll();
+                    } else if (!parked) {
+                        permit = true;
+                    }
+                    // срок ожидания уже наступил - участник и так проснется
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            private void dropDeadline() {
+                if (deadline != Long.MAX_VALUE) {
+                    deadlines.remove(deadline);
+                }
+            }
+        };
+    }
+}